@@ -13,7 +13,6 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import lombok.RequiredArgsConstructor;
-import org.kinetic.heap.Certificate;
 import org.kinetic.heap.Heap;
 import org.kinetic.heap.KineticElement;
 import org.kinetic.heap.KineticHeap;
@@ -52,8 +51,8 @@ public class HeapImageCreator {
     String textId = String.valueOf(kineticHeap.getValue(index));
     return node(textId).with(Font.size(6)).with(Label.html("<b>" + kineticElement.getId() + " ( R: " +FORMATTER.format(kineticElement.getRate()) + ")</b><br/>" +
         "[P0: " + FORMATTER.format(kineticElement.getInitialPriority()) + "]<br/>" +
-        "[P" + kineticHeap.getCurTime() + ": " + FORMATTER.format(kineticElement.getPriority()) + "]<br/>" +
-        certToString(kineticElement.getCertificate())
+        "[P" + kineticHeap.getCurTime() + ": " + FORMATTER.format(kineticElement.priorityAt(kineticHeap.getCurTime())) + "]<br/>" +
+        certToString(index)
       ));
   }
 
@@ -81,14 +80,15 @@ public class HeapImageCreator {
     return result;
   }
 
-  private String certToString(Certificate certificate) {
-    if (certificate == null || certificate.getElementIdx() == Heap.getRoot()) {
+  private String certToString(int index) {
+    double expirationTime = kineticHeap.getCertificateExpirationTime(index);
+    if (Double.isNaN(expirationTime) || index == Heap.getRoot()) {
       return "N/A";
     }
 
-    return "[" + kineticHeap.getValue(Heap.getParent(certificate.getElementIdx())).getId() + HtmlEscapers.htmlEscaper().escape("]<[") + kineticHeap.getValue(certificate.getElementIdx()).getId()
+    return "[" + kineticHeap.getValue(Heap.getParent(index)).getId() + HtmlEscapers.htmlEscaper().escape("]<[") + kineticHeap.getValue(index).getId()
         + "] I: "
-        + FORMATTER.format(certificate.getExpirationTime());
+        + FORMATTER.format(expirationTime);
   }
 
 }
@@ -0,0 +1,247 @@
+package org.kinetic.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.Certificate;
+import org.kinetic.heap.CertificateQueue;
+import org.kinetic.heap.Heap;
+import org.kinetic.heap.ICertificateQueue;
+import org.kinetic.heap.IEventSink;
+import org.kinetic.heap.IHeap;
+import org.kinetic.heap.IndexedHeap;
+import org.kinetic.heap.TimerWheelCertificateQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CertificateQueueBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"1000", "100000", "1000000"})
+    private int n;
+
+    @Param({"1000000"})
+    private int operations;
+
+    private Heap<Certificate> certificateHeap;
+
+    private Certificate[] certificateBySlot;
+
+    private IndexedHeap<Certificate> indexedHeap;
+
+    private Certificate[] indexedCertificateBySlot;
+
+    private CertificateQueue certificateQueue;
+
+    private TimerWheelCertificateQueue timerWheelQueue;
+
+    private int[] slots;
+
+    private double[] times;
+
+    @Setup(Level.Invocation)
+    public void doSetup() {
+      certificateBySlot = new Certificate[n];
+      certificateHeap = new Heap<>(new OwnIdxEventSink());
+      indexedCertificateBySlot = new Certificate[n];
+      indexedHeap = new IndexedHeap<>(n);
+      certificateQueue = new CertificateQueue(n);
+      timerWheelQueue = new TimerWheelCertificateQueue();
+
+      for (int slot = 0; slot < n; slot++) {
+        double time = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+        Certificate certificate = new Certificate(slot, time);
+        certificateBySlot[slot] = certificate;
+        certificateHeap.insert(certificate);
+        Certificate indexedCertificate = new Certificate(slot, time);
+        indexedCertificateBySlot[slot] = indexedCertificate;
+        indexedHeap.insert(indexedCertificate);
+        certificateQueue.add(slot, time);
+        timerWheelQueue.add(slot, time);
+      }
+
+      slots = new int[operations];
+      times = new double[operations];
+      for (int i = 0; i < operations; i++) {
+        slots[i] = ThreadLocalRandom.current().nextInt(n);
+        times[i] = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(CertificateQueueBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  // replaces the certificate of a random slot, the same pattern as invalidate/insert on a swap
+  @Benchmark
+  public int certificateHeapReplace(StateHolder stateHolder) {
+    Heap<Certificate> heap = stateHolder.certificateHeap;
+    Certificate[] bySlot = stateHolder.certificateBySlot;
+
+    for (int i = 0; i < stateHolder.operations; i++) {
+      int slot = stateHolder.slots[i];
+      heap.remove(bySlot[slot].getOwnIdx());
+
+      Certificate certificate = new Certificate(slot, stateHolder.times[i]);
+      bySlot[slot] = certificate;
+      heap.insert(certificate);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int indexedHeapReplace(StateHolder stateHolder) {
+    IndexedHeap<Certificate> heap = stateHolder.indexedHeap;
+    Certificate[] bySlot = stateHolder.indexedCertificateBySlot;
+
+    for (int i = 0; i < stateHolder.operations; i++) {
+      int slot = stateHolder.slots[i];
+      heap.remove(bySlot[slot]);
+
+      Certificate certificate = new Certificate(slot, stateHolder.times[i]);
+      bySlot[slot] = certificate;
+      heap.insert(certificate);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int certificateQueueReplace(StateHolder stateHolder) {
+    return replace(stateHolder.certificateQueue, stateHolder);
+  }
+
+  @Benchmark
+  public int timerWheelQueueReplace(StateHolder stateHolder) {
+    return replace(stateHolder.timerWheelQueue, stateHolder);
+  }
+
+  @Benchmark
+  public int certificateHeapExtractReinsert(StateHolder stateHolder) {
+    Heap<Certificate> heap = stateHolder.certificateHeap;
+    Certificate[] bySlot = stateHolder.certificateBySlot;
+
+    for (int i = 0; i < stateHolder.operations; i++) {
+      Certificate min = heap.extractMin();
+      int slot = min.getElementIdx();
+
+      Certificate certificate = new Certificate(slot, min.getExpirationTime() + stateHolder.times[i]);
+      bySlot[slot] = certificate;
+      heap.insert(certificate);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int indexedHeapExtractReinsert(StateHolder stateHolder) {
+    IndexedHeap<Certificate> heap = stateHolder.indexedHeap;
+    Certificate[] bySlot = stateHolder.indexedCertificateBySlot;
+
+    for (int i = 0; i < stateHolder.operations; i++) {
+      Certificate min = heap.extractMin();
+      int slot = min.getElementIdx();
+
+      Certificate certificate = new Certificate(slot, min.getExpirationTime() + stateHolder.times[i]);
+      bySlot[slot] = certificate;
+      heap.insert(certificate);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int certificateQueueExtractReinsert(StateHolder stateHolder) {
+    return extractReinsert(stateHolder.certificateQueue, stateHolder);
+  }
+
+  @Benchmark
+  public int timerWheelQueueExtractReinsert(StateHolder stateHolder) {
+    return extractReinsert(stateHolder.timerWheelQueue, stateHolder);
+  }
+
+  private int replace(ICertificateQueue queue, StateHolder stateHolder) {
+    for (int i = 0; i < stateHolder.operations; i++) {
+      int slot = stateHolder.slots[i];
+      queue.remove(slot);
+      queue.add(slot, stateHolder.times[i]);
+    }
+    return queue.size();
+  }
+
+  private int extractReinsert(ICertificateQueue queue, StateHolder stateHolder) {
+    for (int i = 0; i < stateHolder.operations; i++) {
+      double time = queue.getMinExpirationTime();
+      int slot = queue.extractMin();
+      queue.add(slot, time + stateHolder.times[i]);
+    }
+    return queue.size();
+  }
+
+  private static class OwnIdxEventSink implements IEventSink<Certificate> {
+
+    @Override
+    public void onBubbleUpEventBeforeSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+
+    }
+
+    @Override
+    public void onBubbleUpEventAfterSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+      setOwnIdx(heap, idx);
+      setOwnIdx(heap, parentIdx);
+    }
+
+    @Override
+    public void onBubbleUpEventNoChange(IHeap<Certificate> heap, int idx) {
+      setOwnIdx(heap, idx);
+    }
+
+    @Override
+    public void onBubbleDownEventBeforeSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+
+    }
+
+    @Override
+    public void onBubbleDownEventAfterSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+      setOwnIdx(heap, idx);
+      setOwnIdx(heap, parentIdx);
+    }
+
+    @Override
+    public void onBubbleDownEventNoChange(IHeap<Certificate> heap, int idx) {
+      setOwnIdx(heap, idx);
+    }
+
+    private void setOwnIdx(IHeap<Certificate> heap, int idx) {
+      if (idx < heap.size()) {
+        ((Heap<Certificate>) heap).getValue(idx).setOwnIdx(idx);
+      }
+    }
+  }
+
+}
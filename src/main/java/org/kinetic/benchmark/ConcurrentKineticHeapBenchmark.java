@@ -0,0 +1,172 @@
+package org.kinetic.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.ConcurrentKineticHeap;
+import org.kinetic.heap.KineticElement;
+import org.kinetic.heap.KineticHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * One writer inserting and advancing against seven readers polling the minimum, once with the
+ * snapshot based wrapper and once with a global lock around a plain heap. Throughput mode, a
+ * single shot says nothing about contention. The read only benchmarks run with 8 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConcurrentKineticHeapBenchmark {
+
+  @State(Scope.Group)
+  public static class StateHolder {
+
+    @Param({"10000", "1000000"})
+    private int n;
+
+    @Param({"16"})
+    private int writeBatch;
+
+    private ConcurrentKineticHeap concurrentHeap;
+
+    private KineticHeap lockedHeap;
+
+    private final Object lock = new Object();
+
+    private double concurrentTime;
+
+    private double lockedTime;
+
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void doSetup() {
+      concurrentHeap = new ConcurrentKineticHeap();
+      lockedHeap = new KineticHeap();
+      for (nextId = 0; nextId < n; nextId++) {
+        KineticElement element = createElement(nextId, 0.0);
+        concurrentHeap.insert(element);
+        lockedHeap.insert(element);
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class ReadOnlyState {
+
+    private ConcurrentKineticHeap concurrentHeap;
+
+    private KineticHeap lockedHeap;
+
+    private final Object lock = new Object();
+
+    @Setup(Level.Trial)
+    public void doSetup() {
+      concurrentHeap = new ConcurrentKineticHeap();
+      lockedHeap = new KineticHeap();
+      for (int id = 0; id < 100_000; id++) {
+        KineticElement element = createElement(id, 0.0);
+        concurrentHeap.insert(element);
+        lockedHeap.insert(element);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(ConcurrentKineticHeapBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  @Group("snapshot")
+  @GroupThreads(7)
+  public KineticElement snapshotRead(StateHolder stateHolder) {
+    return stateHolder.concurrentHeap.getMin();
+  }
+
+  // keeps the heap around n elements, one lock and one publication per batch
+  @Benchmark
+  @Group("snapshot")
+  @GroupThreads(1)
+  public int snapshotWrite(StateHolder stateHolder) {
+    double time = stateHolder.concurrentTime += 0.01;
+    int firstId = stateHolder.nextId;
+    stateHolder.nextId += stateHolder.writeBatch;
+    stateHolder.concurrentHeap.update(heap -> {
+      for (int id = firstId; id < firstId + stateHolder.writeBatch; id++) {
+        heap.insert(createElement(id, time));
+        heap.extractMin();
+      }
+      heap.advanceTo(time);
+    });
+    return stateHolder.writeBatch;
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(7)
+  public KineticElement lockedRead(StateHolder stateHolder) {
+    synchronized (stateHolder.lock) {
+      return stateHolder.lockedHeap.getMin();
+    }
+  }
+
+  @Benchmark
+  @Group("locked")
+  @GroupThreads(1)
+  public int lockedWrite(StateHolder stateHolder) {
+    synchronized (stateHolder.lock) {
+      double time = stateHolder.lockedTime += 0.01;
+      KineticHeap heap = stateHolder.lockedHeap;
+      for (int i = 0; i < stateHolder.writeBatch; i++) {
+        heap.insert(createElement(stateHolder.nextId++, time));
+        heap.extractMin();
+      }
+      heap.advanceTo(time);
+    }
+    return stateHolder.writeBatch;
+  }
+
+  @Benchmark
+  @Threads(8)
+  public KineticElement snapshotReadOnly(ReadOnlyState state) {
+    return state.concurrentHeap.getMin();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public KineticElement lockedReadOnly(ReadOnlyState state) {
+    synchronized (state.lock) {
+      return state.lockedHeap.getMin();
+    }
+  }
+
+  private static KineticElement createElement(int id, double time) {
+    return new KineticElement(id, ThreadLocalRandom.current().nextDouble(time, time + 10.0),
+        ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.kinetic.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.CertificateQueue;
+import org.kinetic.heap.Heap;
+import org.kinetic.heap.KineticHeapPrimitive;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class HeapArityBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int n;
+
+    @Param({"2", "4", "8"})
+    private int arity;
+
+    @Param({"20"})
+    private int timeSteps;
+
+    private int[] ids;
+    private double[] initialPriorities;
+    private double[] rates;
+
+    private Heap<Double> heap;
+    private KineticHeapPrimitive kineticHeap;
+
+    @Setup(Level.Invocation)
+    public void doSetup() {
+      heap = new Heap<>(null, null, arity);
+      kineticHeap = new KineticHeapPrimitive(n, new CertificateQueue(n), 0.0, arity);
+
+      ids = new int[n];
+      initialPriorities = new double[n];
+      rates = new double[n];
+      for (int i = 0; i < n; i++) {
+        ids[i] = i + 1;
+        initialPriorities[i] = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+        rates[i] = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(HeapArityBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int heapInsertRemove(StateHolder stateHolder) {
+    Heap<Double> heap = stateHolder.heap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.initialPriorities[i]);
+    }
+
+    while (heap.size() > 0) {
+      heap.extractMin();
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int kineticHeapAddTimeForward(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.kineticHeap;
+    heap.insertAll(stateHolder.ids, stateHolder.initialPriorities, stateHolder.rates,
+        stateHolder.n);
+
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int kineticHeapInsertRemove(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.kineticHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.ids[i], stateHolder.initialPriorities[i], stateHolder.rates[i]);
+    }
+
+    while (heap.size() > 0) {
+      heap.extractMinId();
+    }
+    return heap.size();
+  }
+
+}
@@ -0,0 +1,190 @@
+package org.kinetic.benchmark;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.Heap;
+import org.kinetic.heap.IHeap;
+import org.kinetic.heap.PairingHeap;
+import org.kinetic.heap.RadixHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Insert heavy, extract heavy and mixed traces over the IHeap implementations and
+ * java.util.PriorityQueue. The mixed trace is monotone (every new value is the extracted minimum
+ * plus a positive delta) so the radix heap can run it too.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HeapBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"10000", "100000", "1000000"})
+    private int n;
+
+    private Double[] values;
+
+    private Double[] deltas;
+
+    private Heap<Double> heap;
+    private PairingHeap<Double> pairingHeap;
+    private RadixHeap<Double> radixHeap;
+    private PriorityQueue<Double> priorityQueue;
+
+    private Heap<Double> filledHeap;
+    private PairingHeap<Double> filledPairingHeap;
+    private RadixHeap<Double> filledRadixHeap;
+    private PriorityQueue<Double> filledPriorityQueue;
+
+    @Setup(Level.Invocation)
+    public void doSetup() {
+      values = new Double[n];
+      deltas = new Double[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+        deltas[i] = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      }
+
+      heap = new Heap<>(null);
+      pairingHeap = new PairingHeap<>();
+      radixHeap = new RadixHeap<>(RadixHeap::orderedBits);
+      priorityQueue = new PriorityQueue<>();
+
+      filledHeap = new Heap<>(null);
+      filledPairingHeap = new PairingHeap<>();
+      filledRadixHeap = new RadixHeap<>(RadixHeap::orderedBits);
+      filledPriorityQueue = new PriorityQueue<>();
+      for (Double value : values) {
+        filledHeap.insert(value);
+        filledPairingHeap.insert(value);
+        filledRadixHeap.insert(value);
+        filledPriorityQueue.add(value);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(HeapBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int heapInsertHeavy(StateHolder stateHolder) {
+    return insertHeavy(stateHolder.heap, stateHolder);
+  }
+
+  @Benchmark
+  public int pairingHeapInsertHeavy(StateHolder stateHolder) {
+    return insertHeavy(stateHolder.pairingHeap, stateHolder);
+  }
+
+  @Benchmark
+  public int radixHeapInsertHeavy(StateHolder stateHolder) {
+    return insertHeavy(stateHolder.radixHeap, stateHolder);
+  }
+
+  @Benchmark
+  public int priorityQueueInsertHeavy(StateHolder stateHolder) {
+    PriorityQueue<Double> queue = stateHolder.priorityQueue;
+    for (int i = 0; i < stateHolder.n; i++) {
+      queue.add(stateHolder.values[i]);
+    }
+    return queue.size();
+  }
+
+  @Benchmark
+  public int heapExtractHeavy(StateHolder stateHolder) {
+    return extractHeavy(stateHolder.filledHeap);
+  }
+
+  @Benchmark
+  public int pairingHeapExtractHeavy(StateHolder stateHolder) {
+    return extractHeavy(stateHolder.filledPairingHeap);
+  }
+
+  @Benchmark
+  public int radixHeapExtractHeavy(StateHolder stateHolder) {
+    return extractHeavy(stateHolder.filledRadixHeap);
+  }
+
+  @Benchmark
+  public int priorityQueueExtractHeavy(StateHolder stateHolder) {
+    PriorityQueue<Double> queue = stateHolder.filledPriorityQueue;
+    while (!queue.isEmpty()) {
+      queue.poll();
+    }
+    return queue.size();
+  }
+
+  @Benchmark
+  public int heapMixed(StateHolder stateHolder) {
+    return mixed(stateHolder.filledHeap, stateHolder);
+  }
+
+  @Benchmark
+  public int pairingHeapMixed(StateHolder stateHolder) {
+    return mixed(stateHolder.filledPairingHeap, stateHolder);
+  }
+
+  @Benchmark
+  public int radixHeapMixed(StateHolder stateHolder) {
+    return mixed(stateHolder.filledRadixHeap, stateHolder);
+  }
+
+  @Benchmark
+  public int priorityQueueMixed(StateHolder stateHolder) {
+    PriorityQueue<Double> queue = stateHolder.filledPriorityQueue;
+    for (int i = 0; i < stateHolder.n; i++) {
+      queue.add(queue.poll() + stateHolder.deltas[i]);
+    }
+    return queue.size();
+  }
+
+  private int insertHeavy(IHeap<Double> heap, StateHolder stateHolder) {
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.values[i]);
+    }
+    return heap.size();
+  }
+
+  private int extractHeavy(IHeap<Double> heap) {
+    while (heap.size() > 0) {
+      heap.extractMin();
+    }
+    return heap.size();
+  }
+
+  private int mixed(IHeap<Double> heap, StateHolder stateHolder) {
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(heap.extractMin() + stateHolder.deltas[i]);
+    }
+    return heap.size();
+  }
+
+}
@@ -9,6 +9,9 @@ import org.kinetic.heap.IKineticHeap;
 import org.kinetic.heap.KineticElement;
 import org.kinetic.heap.KineticHeap;
 import org.kinetic.heap.KineticHeapTrivial;
+import org.kinetic.heap.KineticSortedList;
+import org.kinetic.heap.KineticTournament;
+import org.kinetic.heap.TimerWheelCertificateQueue;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -48,14 +51,30 @@ public class KineticHeapBenchmark {
     @Param({"100"})
     private int maxTimeSteps;
 
+    @Param({"50"})
+    private int topK;
+
     private List<KineticElement> initialData;
 
+    private List<KineticElement> lazyData;
+    private List<KineticElement> timerWheelData;
+    private List<KineticElement> tournamentData;
+    private List<KineticElement> sortedListData;
+
     private IKineticHeap kineticHeapInserts;
+    private IKineticHeap kineticHeapLazyInserts;
+    private IKineticHeap kineticHeapTimerWheelInserts;
+    private KineticHeap kineticHeapBulkInserts;
     private IKineticHeap kineticHeapRemoves;
 
     private IKineticHeap heapInserts;
     private IKineticHeap heapRemoves;
 
+    private IKineticHeap tournamentInserts;
+    private IKineticHeap tournamentRemoves;
+
+    private KineticSortedList sortedListInserts;
+
     private int lastTime;
     private int timeStepDuration;
 
@@ -66,12 +85,23 @@ public class KineticHeapBenchmark {
       heapRemoves = new KineticHeapTrivial();
 
       kineticHeapInserts = new KineticHeap();
+      kineticHeapLazyInserts = KineticHeap.createLazy();
+      kineticHeapTimerWheelInserts = new KineticHeap(new TimerWheelCertificateQueue());
+      kineticHeapBulkInserts = new KineticHeap();
       heapInserts = new KineticHeapTrivial();
+      tournamentInserts = new KineticTournament();
+      tournamentRemoves = new KineticTournament();
+      sortedListInserts = new KineticSortedList();
 
       initialData = createKineticInsertsData();
+      lazyData = copyData();
+      timerWheelData = copyData();
+      tournamentData = copyData();
+      sortedListData = copyData();
 
-      initialData.forEach(x -> kineticHeapRemoves.insert(x.createCopy(() -> kineticHeapRemoves.getCurTime())));
-      initialData.forEach(x -> heapRemoves.insert(x.createCopy(() -> -1)));
+      copyData().forEach(kineticHeapRemoves::insert);
+      copyData().forEach(heapRemoves::insert);
+      copyData().forEach(tournamentRemoves::insert);
 
       lastTime = (int)Utils.maxTimeForPermutations(initialData);
 
@@ -86,14 +116,19 @@ public class KineticHeapBenchmark {
     public void doTearDown() {
     }
 
+    private List<KineticElement> copyData() {
+      return initialData.stream()
+          .map(x -> new KineticElement(x.getId(), x.getInitialPriority(), x.getRate()))
+          .toList();
+    }
+
     private List<KineticElement> createKineticInsertsData() {
       List<KineticElement> kineticElements = new ArrayList<>();
 
       for (int id = 1; id <= n; id++) {
         kineticElements.add(
             new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
-                ThreadLocalRandom.current().nextDouble(0.5, 2.0),
-                () -> kineticHeapInserts.getCurTime()));
+                ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
       }
 
       return kineticElements;
@@ -122,6 +157,12 @@ public class KineticHeapBenchmark {
     return stateHolder.kineticHeapInserts.size();
   }
 
+  @Benchmark
+  public int kineticHeapInsertAll(StateHolder stateHolder, Blackhole bh) {
+    stateHolder.kineticHeapBulkInserts.insertAll(stateHolder.initialData);
+    return stateHolder.kineticHeapBulkInserts.size();
+  }
+
   @Benchmark
   public int trivialHeapInserts(StateHolder stateHolder, Blackhole bh) {
     for (KineticElement element : stateHolder.initialData) {
@@ -141,6 +182,17 @@ public class KineticHeapBenchmark {
     return stateHolder.kineticHeapRemoves.size();
   }
 
+  @Benchmark
+  public int tournamentRemoves(StateHolder stateHolder, Blackhole bh) {
+    while (true) {
+      KineticElement element = stateHolder.tournamentRemoves.extractMin();
+      if (element == null) {
+        break;
+      }
+    }
+    return stateHolder.tournamentRemoves.size();
+  }
+
   @Benchmark
   public int trivialHeapRemoves(StateHolder stateHolder, Blackhole bh) {
     while (true) {
@@ -180,6 +232,104 @@ public class KineticHeapBenchmark {
     }
   }
 
+  @Benchmark
+  public void kineticHeapLazyAddTimeForward(StateHolder stateHolder, Blackhole bh) {
+    addTimeForward(stateHolder, stateHolder.kineticHeapLazyInserts, stateHolder.lazyData);
+  }
+
+  @Benchmark
+  public void kineticHeapTimerWheelAddTimeForward(StateHolder stateHolder, Blackhole bh) {
+    addTimeForward(stateHolder, stateHolder.kineticHeapTimerWheelInserts,
+        stateHolder.timerWheelData);
+  }
+
+  @Benchmark
+  public void tournamentAddTimeForward(StateHolder stateHolder, Blackhole bh) {
+    addTimeForward(stateHolder, stateHolder.tournamentInserts, stateHolder.tournamentData);
+  }
+
+  // jumps from one certificate failure to the next instead of polling every time step
+  @Benchmark
+  public int kineticHeapAddNextEvent(StateHolder stateHolder, Blackhole bh) {
+    IKineticHeap heap = stateHolder.kineticHeapInserts;
+    stateHolder.initialData.forEach(heap::insert);
+
+    int events = 0;
+    while (heap.advanceToNextEvent() <= stateHolder.lastTime) {
+      events++;
+    }
+    return events;
+  }
+
+  @Benchmark
+  public int tournamentAddNextEvent(StateHolder stateHolder, Blackhole bh) {
+    IKineticHeap heap = stateHolder.tournamentInserts;
+    stateHolder.tournamentData.forEach(heap::insert);
+
+    int events = 0;
+    while (heap.advanceToNextEvent() <= stateHolder.lastTime) {
+      events++;
+    }
+    return events;
+  }
+
+  // polls the k smallest every time step by draining and reinserting them
+  @Benchmark
+  public void kineticHeapTopK(StateHolder stateHolder, Blackhole bh) {
+    IKineticHeap heap = stateHolder.kineticHeapInserts;
+    stateHolder.initialData.forEach(heap::insert);
+
+    List<KineticElement> top = new ArrayList<>(stateHolder.topK);
+    int t = 0;
+    while (t <= stateHolder.lastTime) {
+      heap.fastForward(t);
+      for (int i = 0; i < stateHolder.topK && heap.size() > 0; i++) {
+        top.add(heap.extractMin());
+      }
+      bh.consume(top);
+      top.forEach(heap::insert);
+      top.clear();
+      t += stateHolder.timeStepDuration;
+    }
+  }
+
+  @Benchmark
+  public void kineticHeapPeekTopK(StateHolder stateHolder, Blackhole bh) {
+    KineticHeap heap = stateHolder.kineticHeapBulkInserts;
+    stateHolder.initialData.forEach(heap::insert);
+
+    int t = 0;
+    while (t <= stateHolder.lastTime) {
+      heap.fastForward(t);
+      bh.consume(heap.peekTopK(stateHolder.topK));
+      t += stateHolder.timeStepDuration;
+    }
+  }
+
+  @Benchmark
+  public void sortedListTopK(StateHolder stateHolder, Blackhole bh) {
+    KineticSortedList sortedList = stateHolder.sortedListInserts;
+    stateHolder.sortedListData.forEach(sortedList::insert);
+
+    int t = 0;
+    while (t <= stateHolder.lastTime) {
+      sortedList.fastForward(t);
+      bh.consume(sortedList.topK(stateHolder.topK));
+      t += stateHolder.timeStepDuration;
+    }
+  }
+
+  private void addTimeForward(StateHolder stateHolder, IKineticHeap heap,
+      List<KineticElement> data) {
+    data.forEach(heap::insert);
+
+    int t = 0;
+    while (t <= stateHolder.lastTime) {
+      heap.fastForward(t);
+      t += stateHolder.timeStepDuration;
+    }
+  }
+
 
 
 
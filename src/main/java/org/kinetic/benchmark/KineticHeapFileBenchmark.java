@@ -0,0 +1,112 @@
+package org.kinetic.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.KineticHeapPrimitive;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class KineticHeapFileBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"1000000", "10000000"})
+    private int n;
+
+    @Param({"5"})
+    private int timeSteps;
+
+    private int[] ids;
+    private double[] initialPriorities;
+    private double[] rates;
+
+    private KineticHeapPrimitive loadedHeap;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void doSetup() throws IOException {
+      ids = new int[n];
+      initialPriorities = new double[n];
+      rates = new double[n];
+      for (int i = 0; i < n; i++) {
+        ids[i] = i + 1;
+        initialPriorities[i] = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+        rates[i] = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      }
+
+      loadedHeap = new KineticHeapPrimitive(n);
+      loadedHeap.insertAll(ids, initialPriorities, rates, n);
+      for (int t = 1; t <= timeSteps; t++) {
+        loadedHeap.fastForward(t);
+      }
+
+      file = Files.createTempFile("kinetic-heap", ".bin");
+      loadedHeap.save(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDown() throws IOException {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(KineticHeapFileBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int primitiveHeapSave(StateHolder stateHolder) throws IOException {
+    stateHolder.loadedHeap.save(stateHolder.file);
+    return stateHolder.loadedHeap.size();
+  }
+
+  @Benchmark
+  public int primitiveHeapLoad(StateHolder stateHolder) throws IOException {
+    return KineticHeapPrimitive.load(stateHolder.file).getMinId();
+  }
+
+  // the alternative to a restore: bulk load the raw trajectories and replay the time steps
+  @Benchmark
+  public int primitiveHeapRebuild(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = new KineticHeapPrimitive(stateHolder.n);
+    heap.insertAll(stateHolder.ids, stateHolder.initialPriorities, stateHolder.rates,
+        stateHolder.n);
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.getMinId();
+  }
+
+}
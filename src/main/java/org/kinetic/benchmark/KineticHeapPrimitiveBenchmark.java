@@ -0,0 +1,183 @@
+package org.kinetic.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.KineticElement;
+import org.kinetic.heap.KineticHeap;
+import org.kinetic.heap.KineticHeapPrimitive;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class KineticHeapPrimitiveBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int n;
+
+    @Param({"20"})
+    private int timeSteps;
+
+    @Param({"20"})
+    private int forks;
+
+    private int[] ids;
+    private double[] initialPriorities;
+    private double[] rates;
+
+    private KineticHeap kineticHeap;
+    private KineticHeapPrimitive primitiveHeap;
+    private KineticHeapPrimitive loadedHeap;
+
+    @Setup(Level.Invocation)
+    public void doSetup() {
+      kineticHeap = new KineticHeap();
+      primitiveHeap = new KineticHeapPrimitive(n);
+
+      ids = new int[n];
+      initialPriorities = new double[n];
+      rates = new double[n];
+      for (int i = 0; i < n; i++) {
+        ids[i] = i + 1;
+        initialPriorities[i] = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+        rates[i] = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      }
+
+      loadedHeap = new KineticHeapPrimitive(n);
+      loadedHeap.insertAll(ids, initialPriorities, rates, n);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(KineticHeapPrimitiveBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int kineticHeapAddTimeForward(StateHolder stateHolder) {
+    KineticHeap heap = stateHolder.kineticHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(new KineticElement(stateHolder.ids[i], stateHolder.initialPriorities[i],
+          stateHolder.rates[i]));
+    }
+
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int primitiveHeapAddTimeForward(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.primitiveHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.ids[i], stateHolder.initialPriorities[i], stateHolder.rates[i]);
+    }
+
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int kineticHeapInsertRemove(StateHolder stateHolder) {
+    KineticHeap heap = stateHolder.kineticHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(new KineticElement(stateHolder.ids[i], stateHolder.initialPriorities[i],
+          stateHolder.rates[i]));
+    }
+
+    while (heap.size() > 0) {
+      heap.extractMin();
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int primitiveHeapInsertRemove(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.primitiveHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.ids[i], stateHolder.initialPriorities[i], stateHolder.rates[i]);
+    }
+
+    while (heap.size() > 0) {
+      heap.extractMinId();
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int primitiveHeapInsertLoop(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.primitiveHeap;
+    for (int i = 0; i < stateHolder.n; i++) {
+      heap.insert(stateHolder.ids[i], stateHolder.initialPriorities[i], stateHolder.rates[i]);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int primitiveHeapInsertAll(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.primitiveHeap;
+    heap.insertAll(stateHolder.ids, stateHolder.initialPriorities, stateHolder.rates,
+        stateHolder.n);
+    return heap.size();
+  }
+
+  // what-if scenarios: fork the live heap, advance the fork a step, keep advancing the live one
+  @Benchmark
+  public int primitiveHeapFork(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.loadedHeap;
+    int checksum = 0;
+    for (int i = 1; i <= stateHolder.forks; i++) {
+      KineticHeapPrimitive fork = heap.fork();
+      fork.advanceTo(i + 1.0);
+      heap.advanceTo(i);
+      checksum += fork.getMinId();
+    }
+    return checksum;
+  }
+
+  @Benchmark
+  public int primitiveHeapCopyByReinsert(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.loadedHeap;
+    int checksum = 0;
+    for (int i = 1; i <= stateHolder.forks; i++) {
+      KineticHeapPrimitive copy = new KineticHeapPrimitive(heap.size());
+      for (int idx = 0; idx < heap.size(); idx++) {
+        copy.insert(heap.getId(idx), heap.getInitialPriority(idx), heap.getRate(idx));
+      }
+      copy.advanceTo(i + 1.0);
+      heap.advanceTo(i);
+      checksum += copy.getMinId();
+    }
+    return checksum;
+  }
+
+}
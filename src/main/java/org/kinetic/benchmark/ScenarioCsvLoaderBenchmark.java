@@ -0,0 +1,98 @@
+package org.kinetic.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.KineticHeapPrimitive;
+import org.kinetic.heap.ScenarioCsvLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ScenarioCsvLoaderBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"1000000", "10000000"})
+    private int n;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void doSetup() throws IOException {
+      file = Files.createTempFile("scenario", ".csv");
+      try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+        writer.write("id, rate, initialPriority\n");
+        for (int i = 0; i < n; i++) {
+          writer.write(i + 1 + "," + ThreadLocalRandom.current().nextDouble(0.5, 2.0) + ","
+              + ThreadLocalRandom.current().nextDouble(0.0, 10.0) + "\n");
+        }
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDown() throws IOException {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(ScenarioCsvLoaderBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int streamingLoad(StateHolder stateHolder) throws IOException {
+    KineticHeapPrimitive heap = new KineticHeapPrimitive(stateHolder.n);
+    ScenarioCsvLoader.Result result = new ScenarioCsvLoader().load(stateHolder.file, heap);
+    System.out.println(result);
+    return heap.size();
+  }
+
+  // the row by row way of the tests, one String per line and field
+  @Benchmark
+  public int splitLoad(StateHolder stateHolder) throws IOException {
+    KineticHeapPrimitive heap = new KineticHeapPrimitive(stateHolder.n);
+    try (BufferedReader reader = Files.newBufferedReader(stateHolder.file)) {
+      reader.readLine();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] values = line.split(",");
+        heap.insert(Integer.parseInt(values[0]), Double.parseDouble(values[2]),
+            Double.parseDouble(values[1]));
+      }
+    }
+    return heap.size();
+  }
+
+}
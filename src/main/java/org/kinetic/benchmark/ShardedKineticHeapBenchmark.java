@@ -0,0 +1,98 @@
+package org.kinetic.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.kinetic.heap.KineticElement;
+import org.kinetic.heap.KineticHeap;
+import org.kinetic.heap.ShardedKineticHeap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms10G", "-Xmx10G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ShardedKineticHeapBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"100000", "1000000"})
+    private int n;
+
+    @Param({"1", "4", "16", "32"})
+    private int shards;
+
+    @Param({"20"})
+    private int timeSteps;
+
+    private List<KineticElement> data;
+
+    private KineticHeap kineticHeap;
+
+    private ShardedKineticHeap shardedHeap;
+
+    @Setup(Level.Invocation)
+    public void doSetup() {
+      kineticHeap = new KineticHeap();
+      shardedHeap = new ShardedKineticHeap(shards, KineticHeap::new, ForkJoinPool.commonPool());
+
+      data = new ArrayList<>(n);
+      for (int id = 0; id < n; id++) {
+        data.add(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+      }
+      kineticHeap.insertAll(data);
+      shardedHeap.insertAll(data);
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(ShardedKineticHeapBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  // single heap baseline, does not depend on the shard count
+  @Benchmark
+  public int kineticHeapTimeForward(StateHolder stateHolder) {
+    KineticHeap heap = stateHolder.kineticHeap;
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.size();
+  }
+
+  @Benchmark
+  public int shardedHeapTimeForward(StateHolder stateHolder) {
+    ShardedKineticHeap heap = stateHolder.shardedHeap;
+    for (int t = 1; t <= stateHolder.timeSteps; t++) {
+      heap.fastForward(t);
+    }
+    return heap.size();
+  }
+
+}
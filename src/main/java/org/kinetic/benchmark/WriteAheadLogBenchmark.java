@@ -0,0 +1,113 @@
+package org.kinetic.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.kinetic.heap.KineticElement;
+import org.kinetic.heap.KineticHeapPrimitive;
+import org.kinetic.heap.LoggedKineticHeap;
+import org.kinetic.heap.WriteAheadLog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-Xms4G", "-Xmx4G"})
+@Threads(value = 1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class WriteAheadLogBenchmark {
+
+  @State(Scope.Thread)
+  public static class StateHolder {
+
+    @Param({"100000"})
+    private int n;
+
+    // records per fsync, 0 syncs only at the end
+    @Param({"0", "64", "4096"})
+    private int syncBatch;
+
+    private KineticElement[] elements;
+
+    private KineticHeapPrimitive plainHeap;
+
+    private LoggedKineticHeap loggedHeap;
+
+    private Path dir;
+
+    @Setup(Level.Invocation)
+    public void doSetup() throws IOException {
+      elements = new KineticElement[n];
+      for (int i = 0; i < n; i++) {
+        elements[i] = new KineticElement(i + 1, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+      }
+
+      plainHeap = new KineticHeapPrimitive(n);
+      dir = Files.createTempDirectory("kinetic-wal");
+      loggedHeap = new LoggedKineticHeap(new KineticHeapPrimitive(n),
+          WriteAheadLog.open(dir, syncBatch));
+    }
+
+    @TearDown(Level.Invocation)
+    public void doTearDown() throws IOException {
+      loggedHeap.close();
+      try (Stream<Path> files = Files.walk(dir)) {
+        for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+
+    Options opt = new OptionsBuilder()
+        .include(WriteAheadLogBenchmark.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+
+  @Benchmark
+  public int plainInsert(StateHolder stateHolder) {
+    KineticHeapPrimitive heap = stateHolder.plainHeap;
+    for (KineticElement element : stateHolder.elements) {
+      heap.insert(element);
+    }
+    return heap.size();
+  }
+
+  // includes the final commit, so every variant ends with all records on disk
+  @Benchmark
+  public int loggedInsert(StateHolder stateHolder) throws IOException {
+    LoggedKineticHeap heap = stateHolder.loggedHeap;
+    for (KineticElement element : stateHolder.elements) {
+      heap.insert(element);
+    }
+    heap.commit();
+    return heap.size();
+  }
+
+}
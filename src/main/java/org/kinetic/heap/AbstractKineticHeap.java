@@ -0,0 +1,673 @@
+package org.kinetic.heap;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Arrays;
+
+/**
+ * Certificate maintenance shared by the kinetic heap implementations. Subclasses only decide how
+ * the element of a heap slot is stored, everything here works on slot indexes. Every slot also
+ * carries a stable int handle that follows its element through the swaps.
+ */
+public abstract class AbstractKineticHeap implements IKineticHeap {
+
+  public static final int DEFAULT_ARITY = 2;
+
+  private static final int INITIAL_BATCH_CAPACITY = 16;
+
+  protected final ICertificateQueue certificates;
+
+  private final double coincidenceEpsilon;
+
+  private final int arity;
+
+  private final int arityShift;
+
+  protected double curTime;
+
+  private int batchStamp;
+
+  private int[] dirtyStamps = new int[INITIAL_BATCH_CAPACITY];
+
+  private int[] dirtySlots = new int[INITIAL_BATCH_CAPACITY];
+
+  private int dirtyCount;
+
+  private int[] pendingSlots = new int[INITIAL_BATCH_CAPACITY];
+
+  private int pendingCount;
+
+  private int[] slotHandles = new int[INITIAL_BATCH_CAPACITY];
+
+  private int[] handleSlots = new int[INITIAL_BATCH_CAPACITY];
+
+  private int[] freeHandles = new int[INITIAL_BATCH_CAPACITY];
+
+  private int freeHandleCount;
+
+  private int handleCount;
+
+  private final IntDoubleHeap topKFrontier = new IntDoubleHeap();
+
+  private KineticHistory history;
+
+  protected AbstractKineticHeap(ICertificateQueue certificates, double coincidenceEpsilon) {
+    this(certificates, coincidenceEpsilon, DEFAULT_ARITY);
+  }
+
+  protected AbstractKineticHeap(ICertificateQueue certificates, double coincidenceEpsilon,
+      int arity) {
+    if (certificates == null || !certificates.isEmpty()) {
+      throw new IllegalArgumentException("Invalid certificate queue");
+    }
+    if (!(coincidenceEpsilon >= 0.0)) {
+      throw new IllegalArgumentException("Invalid coincidence epsilon");
+    }
+    if (arity < 2 || Integer.bitCount(arity) != 1) {
+      throw new IllegalArgumentException("Arity must be a power of two");
+    }
+    this.certificates = certificates;
+    this.coincidenceEpsilon = coincidenceEpsilon;
+    this.arity = arity;
+    this.arityShift = Integer.numberOfTrailingZeros(arity);
+  }
+
+  // copy for forking, the certificates and handles are copied in O(n), the batch scratch space
+  // starts fresh
+  protected AbstractKineticHeap(AbstractKineticHeap other) {
+    certificates = other.certificates.copy();
+    coincidenceEpsilon = other.coincidenceEpsilon;
+    arity = other.arity;
+    arityShift = other.arityShift;
+    curTime = other.curTime;
+    slotHandles = other.slotHandles.clone();
+    handleSlots = other.handleSlots.clone();
+    freeHandles = other.freeHandles.clone();
+    freeHandleCount = other.freeHandleCount;
+    handleCount = other.handleCount;
+  }
+
+  protected abstract int getSlotId(int idx);
+
+  protected abstract double getSlotInitialPriority(int idx);
+
+  protected abstract double getSlotRate(int idx);
+
+  protected abstract void swapSlots(int idx, int otherIdx);
+
+  protected abstract void setSlotTrajectory(int idx, double initialPriority, double rate);
+
+  protected abstract void moveSlot(int fromIdx, int toIdx);
+
+  protected abstract void removeLastSlot();
+
+  /**
+   * Inserts an element whose priority follows the time of this heap.
+   *
+   * @return handle of the new element
+   */
+  public abstract int insert(int id, double initialPriority, double rate);
+
+  @Override
+  public int getCurTime() {
+    return (int) curTime;
+  }
+
+  @Override
+  public double getTime() {
+    return curTime;
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > curTime)) {
+      return;
+    }
+
+    curTime = nextTime;
+
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= nextTime) {
+      processCoincidentFailures(nextTime);
+    }
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    if (certificates.isEmpty()) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double eventTime = certificates.getMinExpirationTime();
+    curTime = eventTime;
+    // failures within the coincidence epsilon of the event are part of it
+    processCoincidentFailures(eventTime + coincidenceEpsilon);
+    return eventTime;
+  }
+
+  /**
+   * Replaces the trajectory of the element behind the handle, the element is sifted from its
+   * current slot and only the certificates around the visited slots are rebuilt.
+   */
+  public void changeTrajectory(int handle, double newIntercept, double newRate) {
+    int idx = getSlot(handle);
+    if (idx == -1) {
+      throw new IllegalArgumentException("Invalid handle " + handle);
+    }
+
+    setSlotTrajectory(idx, newIntercept, newRate);
+    if (history != null) {
+      history.recordChange(curTime, handle, newIntercept, newRate);
+    }
+    resift(idx);
+  }
+
+  /**
+   * Removes the element behind the handle. A handle stays valid until its element leaves the heap,
+   * after that it may be reused by a later insert.
+   */
+  public boolean remove(int handle) {
+    int idx = getSlot(handle);
+    if (idx == -1) {
+      return false;
+    }
+    removeSlot(idx);
+    return true;
+  }
+
+  public boolean contains(int handle) {
+    return getSlot(handle) != -1;
+  }
+
+  public int getHandle(int idx) {
+    return slotHandles[idx];
+  }
+
+  public int getSlot(int handle) {
+    return handle >= 0 && handle < handleCount ? handleSlots[handle] : -1;
+  }
+
+  public int getMinHandle() {
+    return size() == 0 ? -1 : slotHandles[Heap.getRoot()];
+  }
+
+  public double getCoincidenceEpsilon() {
+    return coincidenceEpsilon;
+  }
+
+  public int getArity() {
+    return arity;
+  }
+
+  public int getParentSlot(int idx) {
+    return (idx - 1) >> arityShift;
+  }
+
+  public int getFirstChildSlot(int idx) {
+    return (idx << arityShift) + 1;
+  }
+
+  /**
+   * Best-first walk from the root at the current time, the frontier only ever holds children of
+   * slots already taken, so this is O(k log k) and leaves the heap and its certificates untouched.
+   *
+   * @return number of slots written, the k smallest in priority order
+   */
+  public int peekTopKSlots(int k, int[] slots) {
+    int count = Math.max(Math.min(Math.min(k, slots.length), size()), 0);
+    if (count == 0) {
+      return 0;
+    }
+
+    topKFrontier.clear();
+    topKFrontier.insert(Heap.getRoot(), getSlotPriority(Heap.getRoot()));
+    for (int i = 0; i < count; i++) {
+      int idx = topKFrontier.extractMin();
+      slots[i] = idx;
+
+      int firstChildIdx = getFirstChildSlot(idx);
+      int lastChildIdx = Math.min(firstChildIdx + arity, size());
+      for (int childIdx = firstChildIdx; childIdx < lastChildIdx; childIdx++) {
+        topKFrontier.insert(childIdx, getSlotPriority(childIdx));
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Starts recording the heap so that past minima and orders can be queried, the elements already
+   * in the heap are recorded as inserted now. A fork does not inherit the history.
+   */
+  public void enableHistory(int checkpointInterval) {
+    history = new KineticHistory(checkpointInterval);
+    for (int idx = 0; idx < size(); idx++) {
+      history.recordInsert(curTime, slotHandles[idx], getSlotId(idx), getSlotInitialPriority(idx),
+          getSlotRate(idx));
+    }
+    recordMin(curTime);
+  }
+
+  public KineticHistory getHistory() {
+    return history;
+  }
+
+  /**
+   * @return id of the minimum just after the given time, -1 if the heap was empty then
+   */
+  public int getMinAt(double time) {
+    return requireHistory().getMinAt(time);
+  }
+
+  /**
+   * @return ids of the elements alive just after the given time in priority order
+   */
+  public int[] getOrderAt(double time) {
+    return requireHistory().getOrderAt(time);
+  }
+
+  /**
+   * @return time of the next certificate failure, positive infinity if there is none
+   */
+  public double getNextEventTime() {
+    return certificates.isEmpty() ? Double.POSITIVE_INFINITY
+        : certificates.getMinExpirationTime();
+  }
+
+  public double getCertificateExpirationTime(int idx) {
+    return certificates.getExpirationTime(idx);
+  }
+
+  /*package*/
+  @VisibleForTesting
+  ICertificateQueue getCertificates() {
+    return certificates;
+  }
+
+  protected int allocateHandle(int idx) {
+    ensureHandleCapacity(Math.max(idx, handleCount) + 1);
+
+    int handle = freeHandleCount > 0 ? freeHandles[--freeHandleCount] : handleCount++;
+    slotHandles[idx] = handle;
+    handleSlots[handle] = idx;
+    if (history != null) {
+      history.recordInsert(curTime, handle, getSlotId(idx), getSlotInitialPriority(idx),
+          getSlotRate(idx));
+    }
+    return handle;
+  }
+
+  protected void releaseHandle(int idx) {
+    int handle = slotHandles[idx];
+    handleSlots[handle] = -1;
+    freeHandles[freeHandleCount++] = handle;
+  }
+
+  protected void moveHandle(int fromIdx, int toIdx) {
+    int handle = slotHandles[fromIdx];
+    slotHandles[toIdx] = handle;
+    handleSlots[handle] = toIdx;
+  }
+
+  // the last element fills the hole and is sifted from there, so removing the root is extractMin
+  protected void removeSlot(int idx) {
+    int lastIdx = size() - 1;
+
+    if (history != null) {
+      history.recordRemove(curTime, slotHandles[idx]);
+    }
+    releaseHandle(idx);
+    certificates.remove(lastIdx);
+    if (idx != lastIdx) {
+      moveSlot(lastIdx, idx);
+      moveHandle(lastIdx, idx);
+    }
+    removeLastSlot();
+
+    if (idx < size()) {
+      resift(idx);
+    }
+    recordMin(curTime);
+  }
+
+  protected int getHandleCount() {
+    return handleCount;
+  }
+
+  protected int[] getFreeHandles() {
+    return Arrays.copyOf(freeHandles, freeHandleCount);
+  }
+
+  // reinstates the handles of a restored heap, slotHandles holds the handle of every slot
+  protected void restoreHandles(int[] slotHandles, int handleCount, int[] freeHandles) {
+    int size = size();
+    ensureHandleCapacity(Math.max(size, handleCount));
+    System.arraycopy(slotHandles, 0, this.slotHandles, 0, size);
+    System.arraycopy(freeHandles, 0, this.freeHandles, 0, freeHandles.length);
+    this.handleCount = handleCount;
+    freeHandleCount = freeHandles.length;
+
+    Arrays.fill(handleSlots, 0, handleCount, -1);
+    for (int idx = 0; idx < size; idx++) {
+      handleSlots[slotHandles[idx]] = idx;
+    }
+  }
+
+  protected void clearHandles() {
+    handleCount = 0;
+    freeHandleCount = 0;
+    if (history != null) {
+      history.recordClear(curTime);
+      recordMin(curTime);
+    }
+  }
+
+  // re-establishes the heap order around a slot whose element has just been replaced, the
+  // certificates of the slot and its children still describe the old element
+  protected int resift(int idx) {
+    certificates.remove(idx);
+    int firstChildIdx = getFirstChildSlot(idx);
+    int endChildIdx = Math.min(firstChildIdx + arity, size());
+    for (int childIdx = firstChildIdx; childIdx < endChildIdx; childIdx++) {
+      certificates.remove(childIdx);
+    }
+
+    int newIdx = heapUp(idx);
+    if (newIdx == idx) {
+      newIdx = heapDown(idx);
+    }
+
+    if (newIdx == idx) {
+      for (int childIdx = firstChildIdx; childIdx < endChildIdx; childIdx++) {
+        createAndMaybeAddCertificate(childIdx, curTime);
+      }
+    }
+    recordMin(curTime);
+    return newIdx;
+  }
+
+  // Floyd heapify of every slot at the current time followed by a single certificate pass, the
+  // certificate queue receives them as one batch
+  protected void buildHeap() {
+    int size = size();
+    certificates.clear();
+    for (int i = size > 1 ? getParentSlot(size - 1) : -1; i >= 0; i--) {
+      siftDown(i, size);
+    }
+
+    int[] slots = new int[size];
+    double[] times = new double[size];
+    int length = 0;
+    for (int i = 1; i < size; i++) {
+      double intersection = getSlotIntersectionTime(i, getParentSlot(i));
+      if (intersection > curTime) {
+        slots[length] = i;
+        times[length] = intersection;
+        length++;
+      }
+    }
+    certificates.addAll(slots, times, length);
+    recordMin(curTime);
+  }
+
+  protected int heapUp(int index) {
+    int curIndex = index;
+    while (curIndex > Heap.getRoot()) {
+      int parentIndex = getParentSlot(curIndex);
+      if (isBeforeAfter(curIndex, parentIndex, curTime)) {
+        invalidateCertificates(curIndex, parentIndex);
+        swap(curIndex, parentIndex);
+        insertCertificates(curIndex, curTime);
+      } else {
+        break;
+      }
+
+      curIndex = parentIndex;
+    }
+
+    recordMin(curTime);
+    if (curIndex == index) {
+      createAndMaybeAddCertificate(curIndex, curTime);
+    }
+    return curIndex;
+  }
+
+  protected int heapDown(int index) {
+    int curIndex = index;
+    int size = size();
+    while (true) {
+      int smallestChildIndex = getSmallestChildSlot(curIndex, size);
+      if (smallestChildIndex == -1) {
+        break;
+      }
+
+      if (isBeforeAfter(smallestChildIndex, curIndex, curTime)) {
+        invalidateCertificates(smallestChildIndex, curIndex);
+        swap(smallestChildIndex, curIndex);
+        insertCertificates(smallestChildIndex, curTime);
+      } else {
+        break;
+      }
+      curIndex = smallestChildIndex;
+    }
+
+    return curIndex;
+  }
+
+  protected double getSlotPriority(int idx) {
+    return getSlotInitialPriority(idx) + getSlotRate(idx) * curTime;
+  }
+
+  protected double getSlotIntersectionTime(int idx, int otherIdx) {
+    double rate = getSlotRate(idx);
+    double otherRate = getSlotRate(otherIdx);
+    if (rate - otherRate == 0) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    return (getSlotInitialPriority(otherIdx) - getSlotInitialPriority(idx)) / (rate - otherRate);
+  }
+
+  // Pops every certificate failing together with the earliest one, repairs the touched region
+  // with checked swaps and only then rebuilds the certificates of the final neighbourhoods.
+  private void processCoincidentFailures(double nextTime) {
+    double batchTime = Math.min(certificates.getMinExpirationTime() + coincidenceEpsilon,
+        nextTime);
+
+    batchStamp++;
+    dirtyCount = 0;
+    pendingCount = 0;
+    ensureBatchCapacity(size());
+
+    double lastTime = certificates.getMinExpirationTime();
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= batchTime) {
+      lastTime = certificates.getMinExpirationTime();
+      int elemIdx = certificates.extractMin();
+      markDirty(elemIdx);
+      pushPending(elemIdx);
+    }
+
+    while (pendingCount > 0) {
+      int elemIdx = pendingSlots[--pendingCount];
+      if (elemIdx == Heap.getRoot() || elemIdx >= size()) {
+        continue;
+      }
+
+      int parentIdx = getParentSlot(elemIdx);
+      if (isBeforeAfter(elemIdx, parentIdx, lastTime)) {
+        swap(elemIdx, parentIdx);
+        markNeighbourhood(elemIdx, parentIdx);
+      }
+    }
+
+    for (int i = 0; i < dirtyCount; i++) {
+      int elemIdx = dirtySlots[i];
+      if (elemIdx < size()) {
+        certificates.remove(elemIdx);
+        createAndMaybeAddCertificate(elemIdx, lastTime);
+      }
+    }
+    recordMin(lastTime);
+  }
+
+  private void recordMin(double time) {
+    if (history != null) {
+      history.recordMin(time, size() == 0 ? -1 : getSlotId(Heap.getRoot()));
+    }
+  }
+
+  private KineticHistory requireHistory() {
+    if (history == null) {
+      throw new IllegalStateException("History is not enabled");
+    }
+    return history;
+  }
+
+  private void siftDown(int idx, int size) {
+    int curIndex = idx;
+    while (true) {
+      int smallestChildIndex = getSmallestChildSlot(curIndex, size);
+      if (smallestChildIndex == -1 || !isBeforeAfter(smallestChildIndex, curIndex, curTime)) {
+        return;
+      }
+      swap(smallestChildIndex, curIndex);
+      curIndex = smallestChildIndex;
+    }
+  }
+
+  private int getSmallestChildSlot(int idx, int size) {
+    int firstChildIdx = getFirstChildSlot(idx);
+    if (firstChildIdx >= size) {
+      return -1;
+    }
+
+    int endChildIdx = Math.min(firstChildIdx + arity, size);
+    int smallestChildIdx = firstChildIdx;
+    for (int childIdx = firstChildIdx + 1; childIdx < endChildIdx; childIdx++) {
+      if (isBeforeAfter(childIdx, smallestChildIdx, curTime)) {
+        smallestChildIdx = childIdx;
+      }
+    }
+    return smallestChildIdx;
+  }
+
+  private void swap(int idx, int otherIdx) {
+    swapSlots(idx, otherIdx);
+
+    int handle = slotHandles[idx];
+    slotHandles[idx] = slotHandles[otherIdx];
+    slotHandles[otherIdx] = handle;
+    handleSlots[slotHandles[idx]] = idx;
+    handleSlots[handle] = otherIdx;
+  }
+
+  private void ensureHandleCapacity(int capacity) {
+    if (capacity <= slotHandles.length) {
+      return;
+    }
+    int newLength = Math.max(capacity, slotHandles.length << 1);
+    slotHandles = Arrays.copyOf(slotHandles, newLength);
+    handleSlots = Arrays.copyOf(handleSlots, newLength);
+    freeHandles = Arrays.copyOf(freeHandles, newLength);
+  }
+
+  private void markNeighbourhood(int idx, int parentIdx) {
+    markDirty(parentIdx);
+    pushPending(parentIdx);
+
+    int size = size();
+    int firstSiblingIdx = getFirstChildSlot(parentIdx);
+    int endSiblingIdx = Math.min(firstSiblingIdx + arity, size);
+    for (int siblingIdx = firstSiblingIdx; siblingIdx < endSiblingIdx; siblingIdx++) {
+      markDirty(siblingIdx);
+      pushPending(siblingIdx);
+    }
+
+    int firstChildIdx = getFirstChildSlot(idx);
+    int endChildIdx = Math.min(firstChildIdx + arity, size);
+    for (int childIdx = firstChildIdx; childIdx < endChildIdx; childIdx++) {
+      markDirty(childIdx);
+      pushPending(childIdx);
+    }
+  }
+
+  private void markDirty(int idx) {
+    if (dirtyStamps[idx] != batchStamp) {
+      dirtyStamps[idx] = batchStamp;
+      dirtySlots[dirtyCount++] = idx;
+    }
+  }
+
+  private void pushPending(int idx) {
+    if (pendingCount == pendingSlots.length) {
+      pendingSlots = Arrays.copyOf(pendingSlots, pendingCount << 1);
+    }
+    pendingSlots[pendingCount++] = idx;
+  }
+
+  private void ensureBatchCapacity(int size) {
+    if (dirtyStamps.length < size) {
+      int newLength = Math.max(size, dirtyStamps.length << 1);
+      dirtyStamps = Arrays.copyOf(dirtyStamps, newLength);
+      dirtySlots = Arrays.copyOf(dirtySlots, newLength);
+    }
+  }
+
+  // slots are placed by their order just after the time, a tie at that time is decided by the
+  // rates since no certificate is created for a crossing that is not strictly in the future
+  private boolean isBeforeAfter(int idx, int otherIdx, double time) {
+    return KineticElement.isBeforeAfter(getSlotInitialPriority(idx), getSlotRate(idx),
+        getSlotInitialPriority(otherIdx), getSlotRate(otherIdx), time);
+  }
+
+  // the certificates touched by a swap of a slot with its parent: the parent's own one, the
+  // slot and its siblings against the parent and the slot's children
+  private void invalidateCertificates(int idx, int parentIdx) {
+    certificates.remove(parentIdx);
+
+    int size = size();
+    int firstSiblingIdx = getFirstChildSlot(parentIdx);
+    int endSiblingIdx = Math.min(firstSiblingIdx + arity, size);
+    for (int siblingIdx = firstSiblingIdx; siblingIdx < endSiblingIdx; siblingIdx++) {
+      certificates.remove(siblingIdx);
+    }
+
+    int firstChildIdx = getFirstChildSlot(idx);
+    int endChildIdx = Math.min(firstChildIdx + arity, size);
+    for (int childIdx = firstChildIdx; childIdx < endChildIdx; childIdx++) {
+      certificates.remove(childIdx);
+    }
+  }
+
+  private void insertCertificates(int idx, double time) {
+    int parentIdx = getParentSlot(idx);
+    createAndMaybeAddCertificate(parentIdx, time);
+
+    int size = size();
+    int firstSiblingIdx = getFirstChildSlot(parentIdx);
+    int endSiblingIdx = Math.min(firstSiblingIdx + arity, size);
+    for (int siblingIdx = firstSiblingIdx; siblingIdx < endSiblingIdx; siblingIdx++) {
+      createAndMaybeAddCertificate(siblingIdx, time);
+    }
+
+    int firstChildIdx = getFirstChildSlot(idx);
+    int endChildIdx = Math.min(firstChildIdx + arity, size);
+    for (int childIdx = firstChildIdx; childIdx < endChildIdx; childIdx++) {
+      createAndMaybeAddCertificate(childIdx, time);
+    }
+  }
+
+  protected void createAndMaybeAddCertificate(int idx, double newTime) {
+    if (idx == Heap.getRoot()) {
+      return;
+    }
+
+    double intersection = getSlotIntersectionTime(idx, getParentSlot(idx));
+    if (intersection > newTime) {
+      certificates.add(idx, intersection);
+    }
+
+  }
+
+}
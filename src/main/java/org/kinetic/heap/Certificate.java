@@ -7,7 +7,7 @@ import lombok.Setter;
 
 @RequiredArgsConstructor
 @Getter
-public class Certificate implements Comparable<Certificate> {
+public class Certificate implements Comparable<Certificate>, IIndexedElement {
 
   private final static DecimalFormat FORMATTER = new DecimalFormat("#0.00");
 
@@ -0,0 +1,386 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of certificates stored as parallel primitive arrays. A certificate is identified
+ * by the element slot it guards (the element vs. its parent), so every slot owns at most one
+ * certificate and the slot -> heap position index is kept inline while sifting.
+ *
+ * <p>In lazy mode a removed certificate stays in the heap and is only invalidated by bumping the
+ * generation of its slot. Stale entries are dropped when they surface at the top, or all at once
+ * when their share of the heap passes the stale threshold.
+ */
+public class CertificateQueue implements ICertificateQueue {
+
+  public static final double DEFAULT_STALE_THRESHOLD = 0.5;
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private static final int MIN_PURGE_SIZE = 64;
+
+  private final boolean lazy;
+
+  private final double staleThreshold;
+
+  private double[] times;
+
+  private int[] elements;
+
+  private int[] stamps;
+
+  private int[] positions;
+
+  private int[] generations;
+
+  private double[] liveTimes;
+
+  private int count;
+
+  private int stale;
+
+  public CertificateQueue() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public CertificateQueue(int capacity) {
+    this(capacity, false, DEFAULT_STALE_THRESHOLD);
+  }
+
+  public CertificateQueue(int capacity, boolean lazy, double staleThreshold) {
+    if (staleThreshold <= 0.0 || staleThreshold > 1.0) {
+      throw new IllegalArgumentException("Invalid stale threshold");
+    }
+    this.lazy = lazy;
+    this.staleThreshold = staleThreshold;
+
+    int initial = Math.max(capacity, 1);
+    times = new double[initial];
+    elements = new int[initial];
+    positions = new int[initial];
+    Arrays.fill(positions, -1);
+    if (lazy) {
+      stamps = new int[initial];
+      generations = new int[initial];
+      liveTimes = new double[initial];
+      Arrays.fill(liveTimes, Double.NaN);
+    }
+  }
+
+  private CertificateQueue(CertificateQueue other) {
+    lazy = other.lazy;
+    staleThreshold = other.staleThreshold;
+    times = other.times.clone();
+    elements = other.elements.clone();
+    positions = other.positions.clone();
+    if (lazy) {
+      stamps = other.stamps.clone();
+      generations = other.generations.clone();
+      liveTimes = other.liveTimes.clone();
+    }
+    count = other.count;
+    stale = other.stale;
+  }
+
+  public static CertificateQueue createLazy() {
+    return new CertificateQueue(DEFAULT_CAPACITY, true, DEFAULT_STALE_THRESHOLD);
+  }
+
+  @Override
+  public void add(int elementIdx, double expirationTime) {
+    ensureElementCapacity(elementIdx);
+    if (contains(elementIdx)) {
+      throw new IllegalArgumentException("Certificate already exists for element " + elementIdx);
+    }
+    ensureEntryCapacity(count + 1);
+
+    int stamp = 0;
+    if (lazy) {
+      stamp = generations[elementIdx];
+      liveTimes[elementIdx] = expirationTime;
+    }
+    heapUp(count++, elementIdx, stamp, expirationTime);
+  }
+
+  // a batch at least as large as the queue is appended as is and heapified in O(n)
+  @Override
+  public void addAll(int[] elementIdxs, double[] expirationTimes, int length) {
+    boolean heapify = length >= count;
+    ensureEntryCapacity(count + length);
+
+    for (int i = 0; i < length; i++) {
+      int elementIdx = elementIdxs[i];
+      double expirationTime = expirationTimes[i];
+      ensureElementCapacity(elementIdx);
+      if (contains(elementIdx)) {
+        throw new IllegalArgumentException("Certificate already exists for element " + elementIdx);
+      }
+
+      int stamp = 0;
+      if (lazy) {
+        stamp = generations[elementIdx];
+        liveTimes[elementIdx] = expirationTime;
+      }
+      if (heapify) {
+        place(count++, elementIdx, stamp, expirationTime);
+      } else {
+        heapUp(count++, elementIdx, stamp, expirationTime);
+      }
+    }
+
+    if (heapify) {
+      for (int i = (count >>> 1) - 1; i >= 0; i--) {
+        heapDown(i, elements[i], lazy ? stamps[i] : 0, times[i]);
+      }
+    }
+  }
+
+  @Override
+  public boolean remove(int elementIdx) {
+    if (!contains(elementIdx)) {
+      return false;
+    }
+
+    if (lazy) {
+      generations[elementIdx]++;
+      liveTimes[elementIdx] = Double.NaN;
+      stale++;
+      if (count >= MIN_PURGE_SIZE && stale > count * staleThreshold) {
+        purge();
+      }
+    } else {
+      int idx = positions[elementIdx];
+      positions[elementIdx] = -1;
+      removeAt(idx);
+    }
+    return true;
+  }
+
+  @Override
+  public int extractMin() {
+    int elementIdx = getMinElementIdx();
+    if (elementIdx != -1) {
+      remove(elementIdx);
+    }
+    return elementIdx;
+  }
+
+  @Override
+  public boolean contains(int elementIdx) {
+    if (elementIdx < 0 || elementIdx >= positions.length) {
+      return false;
+    }
+    return lazy ? !Double.isNaN(liveTimes[elementIdx]) : positions[elementIdx] != -1;
+  }
+
+  @Override
+  public double getExpirationTime(int elementIdx) {
+    if (!contains(elementIdx)) {
+      return Double.NaN;
+    }
+    return lazy ? liveTimes[elementIdx] : times[positions[elementIdx]];
+  }
+
+  @Override
+  public int getMinElementIdx() {
+    dropStaleTop();
+    return count == 0 ? -1 : elements[0];
+  }
+
+  @Override
+  public double getMinExpirationTime() {
+    dropStaleTop();
+    return count == 0 ? Double.POSITIVE_INFINITY : times[0];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public int size() {
+    return count - stale;
+  }
+
+  public int getStaleCount() {
+    return stale;
+  }
+
+  public boolean isLazy() {
+    return lazy;
+  }
+
+  @Override
+  public CertificateQueue copy() {
+    return new CertificateQueue(this);
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < count; i++) {
+      if (lazy) {
+        liveTimes[elements[i]] = Double.NaN;
+      } else {
+        positions[elements[i]] = -1;
+      }
+    }
+    count = 0;
+    stale = 0;
+  }
+
+  // drops every stale entry and restores the heap order in O(n)
+  public void purge() {
+    if (!lazy || stale == 0) {
+      return;
+    }
+
+    int live = 0;
+    for (int i = 0; i < count; i++) {
+      if (!isStale(i)) {
+        times[live] = times[i];
+        elements[live] = elements[i];
+        stamps[live] = stamps[i];
+        live++;
+      }
+    }
+    count = live;
+    stale = 0;
+
+    for (int i = (count >>> 1) - 1; i >= 0; i--) {
+      heapDown(i, elements[i], stamps[i], times[i]);
+    }
+  }
+
+  public int getEntryCount() {
+    return count;
+  }
+
+  public int getElementIdxAt(int position) {
+    return elements[position];
+  }
+
+  public double getExpirationTimeAt(int position) {
+    return times[position];
+  }
+
+  public boolean isStaleAt(int position) {
+    return isStale(position);
+  }
+
+  /**
+   * @return heap position of the live certificate of the element, -1 if there is none
+   * @throws IllegalStateException in lazy mode, which does not track positions
+   */
+  public int getPosition(int elementIdx) {
+    if (lazy) {
+      throw new IllegalStateException("Positions are not tracked in lazy mode");
+    }
+    return contains(elementIdx) ? positions[elementIdx] : -1;
+  }
+
+  private boolean isStale(int position) {
+    return lazy && stamps[position] != generations[elements[position]];
+  }
+
+  private void dropStaleTop() {
+    while (count > 0 && isStale(0)) {
+      stale--;
+      removeAt(0);
+    }
+  }
+
+  private void removeAt(int idx) {
+    int last = --count;
+    if (idx != last) {
+      int lastElement = elements[last];
+      int lastStamp = lazy ? stamps[last] : 0;
+      double lastTime = times[last];
+      if (idx > 0 && lastTime < times[(idx - 1) >> 1]) {
+        heapUp(idx, lastElement, lastStamp, lastTime);
+      } else {
+        heapDown(idx, lastElement, lastStamp, lastTime);
+      }
+    }
+  }
+
+  private void heapUp(int idx, int elementIdx, int stamp, double time) {
+    int curIdx = idx;
+    while (curIdx > 0) {
+      int parentIdx = (curIdx - 1) >> 1;
+      double parentTime = times[parentIdx];
+      if (time >= parentTime) {
+        break;
+      }
+      move(parentIdx, curIdx);
+      curIdx = parentIdx;
+    }
+    place(curIdx, elementIdx, stamp, time);
+  }
+
+  private void heapDown(int idx, int elementIdx, int stamp, double time) {
+    int curIdx = idx;
+    int half = count >>> 1;
+    while (curIdx < half) {
+      int childIdx = 2 * curIdx + 1;
+      int rightIdx = childIdx + 1;
+      if (rightIdx < count && times[rightIdx] < times[childIdx]) {
+        childIdx = rightIdx;
+      }
+      if (time <= times[childIdx]) {
+        break;
+      }
+      move(childIdx, curIdx);
+      curIdx = childIdx;
+    }
+    place(curIdx, elementIdx, stamp, time);
+  }
+
+  private void move(int from, int to) {
+    times[to] = times[from];
+    elements[to] = elements[from];
+    if (lazy) {
+      stamps[to] = stamps[from];
+    } else {
+      positions[elements[to]] = to;
+    }
+  }
+
+  private void place(int idx, int elementIdx, int stamp, double time) {
+    times[idx] = time;
+    elements[idx] = elementIdx;
+    if (lazy) {
+      stamps[idx] = stamp;
+    } else {
+      positions[elementIdx] = idx;
+    }
+  }
+
+  private void ensureEntryCapacity(int capacity) {
+    if (capacity <= times.length) {
+      return;
+    }
+    int newLength = Math.max(capacity, times.length << 1);
+    times = Arrays.copyOf(times, newLength);
+    elements = Arrays.copyOf(elements, newLength);
+    if (lazy) {
+      stamps = Arrays.copyOf(stamps, newLength);
+    }
+  }
+
+  private void ensureElementCapacity(int elementIdx) {
+    if (elementIdx < positions.length) {
+      return;
+    }
+    int oldLength = positions.length;
+    int newLength = Math.max(elementIdx + 1, oldLength << 1);
+    positions = Arrays.copyOf(positions, newLength);
+    Arrays.fill(positions, oldLength, newLength, -1);
+    if (lazy) {
+      generations = Arrays.copyOf(generations, newLength);
+      liveTimes = Arrays.copyOf(liveTimes, newLength);
+      Arrays.fill(liveTimes, oldLength, newLength, Double.NaN);
+    }
+  }
+
+}
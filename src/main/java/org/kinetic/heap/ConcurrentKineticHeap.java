@@ -0,0 +1,155 @@
+package org.kinetic.heap;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Thread safe view of a kinetic heap for many readers and few writers. Every mutation runs under
+ * one lock and ends by publishing an immutable snapshot of the minimum, the time and the size
+ * through a volatile field, so getMin, getTime and size never block and never see a half applied
+ * update. Writers that have several changes should pass them to {@link #update} to pay for the
+ * lock and the publication once.
+ */
+public class ConcurrentKineticHeap implements IKineticHeap {
+
+  @RequiredArgsConstructor
+  @Getter
+  public static class Snapshot {
+
+    private final KineticElement min;
+    private final double time;
+    private final int size;
+  }
+
+  private final IKineticHeap heap;
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  private volatile Snapshot snapshot;
+
+  public ConcurrentKineticHeap() {
+    this(new KineticHeap());
+  }
+
+  // the wrapped heap must not be touched directly afterwards
+  public ConcurrentKineticHeap(IKineticHeap heap) {
+    if (heap == null) {
+      throw new IllegalArgumentException("Invalid heap");
+    }
+    this.heap = heap;
+    publish();
+  }
+
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    return snapshot.getMin();
+  }
+
+  @Override
+  public double getTime() {
+    return snapshot.getTime();
+  }
+
+  @Override
+  public int getCurTime() {
+    return (int) snapshot.getTime();
+  }
+
+  @Override
+  public int size() {
+    return snapshot.getSize();
+  }
+
+  /**
+   * Applies a batch of writes to the underlying heap under a single lock acquisition and
+   * publishes one snapshot at the end. The heap passed to the batch must not escape it.
+   */
+  public void update(Consumer<? super IKineticHeap> writes) {
+    writeLock.lock();
+    try {
+      writes.accept(heap);
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  public void insertAll(Collection<? extends KineticElement> elements) {
+    update(h -> elements.forEach(h::insert));
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    writeLock.lock();
+    try {
+      heap.insert(data);
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    writeLock.lock();
+    try {
+      return heap.extractMin();
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    writeLock.lock();
+    try {
+      heap.advanceTo(nextTime);
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    writeLock.lock();
+    try {
+      return heap.advanceToNextEvent();
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    writeLock.lock();
+    try {
+      heap.clear();
+    } finally {
+      publish();
+      writeLock.unlock();
+    }
+  }
+
+  // the published minimum is evaluated at the snapshot time, not at the live clock of the writer
+  private void publish() {
+    KineticElement min = heap.getMin();
+    double time = heap.getTime();
+    snapshot = new Snapshot(min == null ? null : min.createCopy(() -> time), time, heap.size());
+  }
+
+}
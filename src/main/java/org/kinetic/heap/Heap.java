@@ -4,16 +4,42 @@ import com.google.common.annotations.VisibleForTesting;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 
-@RequiredArgsConstructor
 public class Heap<T extends Comparable<T>> implements IHeap<T> {
 
+  public static final int DEFAULT_ARITY = 2;
+
   private final List<T> heap = new ArrayList<>();
 
   private final IEventSink<T> eventSink;
 
+  private final Comparator<? super T> comparator;
+
+  private final int arity;
+
+  private final int arityShift;
+
+  public Heap(IEventSink<T> eventSink) {
+    this(eventSink, null);
+  }
+
+  public Heap(IEventSink<T> eventSink, Comparator<? super T> comparator) {
+    this(eventSink, comparator, DEFAULT_ARITY);
+  }
+
+  // the static navigation helpers below describe the default binary layout only
+  public Heap(IEventSink<T> eventSink, Comparator<? super T> comparator, int arity) {
+    if (arity < 2 || Integer.bitCount(arity) != 1) {
+      throw new IllegalArgumentException("Arity must be a power of two");
+    }
+    this.eventSink = eventSink;
+    this.comparator = comparator;
+    this.arity = arity;
+    this.arityShift = Integer.numberOfTrailingZeros(arity);
+  }
+
   @Override
   public void clear() {
     heap.clear();
@@ -86,6 +112,21 @@ public class Heap<T extends Comparable<T>> implements IHeap<T> {
     return idx % 2 == 0 ? idx - 1 : idx + 1;
   }
 
+  public int getArity() {
+    return arity;
+  }
+
+  public int getParentIdx(int idx) {
+    if (idx == 0) {
+      throw new IllegalArgumentException("Cannot get parent from root");
+    }
+    return (idx - 1) >> arityShift;
+  }
+
+  public int getFirstChildIdx(int idx) {
+    return (idx << arityShift) + 1;
+  }
+
   public T getValue(int idx) {
     return heap.get(idx);
   }
@@ -101,8 +142,8 @@ public class Heap<T extends Comparable<T>> implements IHeap<T> {
   public int heapUp(int index) {
     int curIndex = index;
     while (curIndex > Heap.getRoot()) {
-      int parentIndex = Heap.getParent(curIndex);
-      if (getValue(curIndex).compareTo(getValue(parentIndex)) < 0) {
+      int parentIndex = getParentIdx(curIndex);
+      if (compare(getValue(curIndex), getValue(parentIndex)) < 0) {
         if (eventSink != null) {
           eventSink.onBubbleUpEventBeforeSwap(this, curIndex, parentIndex);
         }
@@ -129,18 +170,20 @@ public class Heap<T extends Comparable<T>> implements IHeap<T> {
     int curIndex = index;
     int size = heap.size();
     while (true) {
-      int leftChildIndex = getLeftChild(curIndex);
-      int rightChildIndex = getRightChild(curIndex);
-      if (leftChildIndex >= size) {
+      int firstChildIndex = getFirstChildIdx(curIndex);
+      if (firstChildIndex >= size) {
         break;
       }
 
-      boolean hasRight = rightChildIndex < size;
-      int smallestIndex =
-          hasRight && getValue(rightChildIndex).compareTo(getValue(leftChildIndex)) < 0
-              ? rightChildIndex : leftChildIndex;
+      int endChildIndex = Math.min(firstChildIndex + arity, size);
+      int smallestIndex = firstChildIndex;
+      for (int childIndex = firstChildIndex + 1; childIndex < endChildIndex; childIndex++) {
+        if (compare(getValue(childIndex), getValue(smallestIndex)) < 0) {
+          smallestIndex = childIndex;
+        }
+      }
 
-      if (getValue(smallestIndex).compareTo(getValue(curIndex)) < 0) {
+      if (compare(getValue(smallestIndex), getValue(curIndex)) < 0) {
         if (eventSink != null) {
           eventSink.onBubbleDownEventBeforeSwap(this, smallestIndex, curIndex);
         }
@@ -174,6 +217,10 @@ public class Heap<T extends Comparable<T>> implements IHeap<T> {
     return old;
   }
 
+  private int compare(T value, T otherValue) {
+    return comparator != null ? comparator.compare(value, otherValue) : value.compareTo(otherValue);
+  }
+
   public List<T> createListCopy() {
     return new ArrayList<>(heap);
   }
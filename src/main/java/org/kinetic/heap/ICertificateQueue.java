@@ -0,0 +1,31 @@
+package org.kinetic.heap;
+
+public interface ICertificateQueue {
+
+  void add(int elementIdx, double expirationTime);
+
+  void addAll(int[] elementIdxs, double[] expirationTimes, int length);
+
+  boolean remove(int elementIdx);
+
+  boolean contains(int elementIdx);
+
+  double getExpirationTime(int elementIdx);
+
+  int getMinElementIdx();
+
+  double getMinExpirationTime();
+
+  int extractMin();
+
+  boolean isEmpty();
+
+  int size();
+
+  void clear();
+
+  /**
+   * @return independent copy of the queue, later changes to either side do not affect the other
+   */
+  ICertificateQueue copy();
+}
@@ -0,0 +1,11 @@
+package org.kinetic.heap;
+
+/**
+ * Element that stores its own position in an {@link IndexedHeap}, -1 while it is not in one.
+ */
+public interface IIndexedElement {
+
+  int getOwnIdx();
+
+  void setOwnIdx(int ownIdx);
+}
@@ -0,0 +1,21 @@
+package org.kinetic.heap;
+
+/**
+ * Primitive counterpart of {@link IHeap}: int values ordered by a double key.
+ */
+public interface IIntDoubleHeap {
+
+  int extractMin();
+
+  int getMin();
+
+  double getMinKey();
+
+  void insert(int value, double key);
+
+  int size();
+
+  boolean isEmpty();
+
+  void clear();
+}
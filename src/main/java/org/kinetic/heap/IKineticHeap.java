@@ -4,5 +4,16 @@ public interface IKineticHeap extends IHeap<KineticElement> {
 
   void fastForward(int nextTime);
 
+  void advanceTo(double nextTime);
+
+  /**
+   * Moves the time to the next certificate failure and processes it.
+   *
+   * @return time of the processed failure, positive infinity if the order never changes again
+   */
+  double advanceToNextEvent();
+
   int getCurTime();
+
+  double getTime();
 }
@@ -0,0 +1,151 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap whose elements know their own slot. Positions are written inline while sifting
+ * instead of being reported through an {@link IEventSink}, which makes removing or re-sifting a
+ * given element O(log n). An element can be in at most one indexed heap at a time.
+ */
+public class IndexedHeap<T extends Comparable<T> & IIndexedElement> implements IHeap<T> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Object[] heap;
+
+  private int size;
+
+  public IndexedHeap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IndexedHeap(int capacity) {
+    heap = new Object[Math.max(capacity, 1)];
+  }
+
+  @Override
+  public void insert(T data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    if (size == heap.length) {
+      heap = Arrays.copyOf(heap, size << 1);
+    }
+    heapUp(size++, data);
+  }
+
+  @Override
+  public T extractMin() {
+    T minElement = getMin();
+    if (minElement != null) {
+      removeAt(0);
+    }
+    return minElement;
+  }
+
+  @Override
+  public T getMin() {
+    return size == 0 ? null : getValue(0);
+  }
+
+  public boolean remove(T element) {
+    if (!contains(element)) {
+      return false;
+    }
+    removeAt(element.getOwnIdx());
+    return true;
+  }
+
+  // restores the order after the priority of an element already in the heap has changed
+  public void update(T element) {
+    if (!contains(element)) {
+      throw new IllegalArgumentException("Element is not in the heap");
+    }
+    int idx = element.getOwnIdx();
+    if (idx > 0 && element.compareTo(getValue((idx - 1) >> 1)) < 0) {
+      heapUp(idx, element);
+    } else {
+      heapDown(idx, element);
+    }
+  }
+
+  public boolean contains(T element) {
+    int idx = element.getOwnIdx();
+    return idx >= 0 && idx < size && heap[idx] == element;
+  }
+
+  @SuppressWarnings("unchecked")
+  public T getValue(int idx) {
+    return (T) heap[idx];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      getValue(i).setOwnIdx(-1);
+      heap[i] = null;
+    }
+    size = 0;
+  }
+
+  private void removeAt(int idx) {
+    T removed = getValue(idx);
+    removed.setOwnIdx(-1);
+
+    int last = --size;
+    T lastElement = getValue(last);
+    heap[last] = null;
+    if (idx != last) {
+      if (idx > 0 && lastElement.compareTo(getValue((idx - 1) >> 1)) < 0) {
+        heapUp(idx, lastElement);
+      } else {
+        heapDown(idx, lastElement);
+      }
+    }
+  }
+
+  private void heapUp(int idx, T element) {
+    int curIdx = idx;
+    while (curIdx > 0) {
+      int parentIdx = (curIdx - 1) >> 1;
+      T parent = getValue(parentIdx);
+      if (element.compareTo(parent) >= 0) {
+        break;
+      }
+      place(curIdx, parent);
+      curIdx = parentIdx;
+    }
+    place(curIdx, element);
+  }
+
+  private void heapDown(int idx, T element) {
+    int curIdx = idx;
+    int half = size >>> 1;
+    while (curIdx < half) {
+      int childIdx = 2 * curIdx + 1;
+      T child = getValue(childIdx);
+      int rightIdx = childIdx + 1;
+      if (rightIdx < size && getValue(rightIdx).compareTo(child) < 0) {
+        childIdx = rightIdx;
+        child = getValue(rightIdx);
+      }
+      if (element.compareTo(child) <= 0) {
+        break;
+      }
+      place(curIdx, child);
+      curIdx = childIdx;
+    }
+    place(curIdx, element);
+  }
+
+  private void place(int idx, T element) {
+    heap[idx] = element;
+    element.setOwnIdx(idx);
+  }
+
+}
@@ -0,0 +1,126 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of int values keyed by double, backed by two parallel arrays that grow on
+ * demand. Sifting moves a hole instead of swapping so every level costs one write per array.
+ */
+public class IntDoubleHeap implements IIntDoubleHeap {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private double[] keys;
+
+  private int[] values;
+
+  private int size;
+
+  public IntDoubleHeap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntDoubleHeap(int capacity) {
+    int initial = Math.max(capacity, 1);
+    keys = new double[initial];
+    values = new int[initial];
+  }
+
+  @Override
+  public void insert(int value, double key) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size << 1);
+      values = Arrays.copyOf(values, size << 1);
+    }
+    heapUp(size++, value, key);
+  }
+
+  @Override
+  public int extractMin() {
+    int minValue = getMin();
+    int last = --size;
+    if (last > 0) {
+      heapDown(0, values[last], keys[last]);
+    }
+    return minValue;
+  }
+
+  @Override
+  public int getMin() {
+    if (size == 0) {
+      throw new IllegalStateException("Heap is empty");
+    }
+    return values[0];
+  }
+
+  @Override
+  public double getMinKey() {
+    return size == 0 ? Double.NaN : keys[0];
+  }
+
+  // extractMin followed by insert with a single sift
+  public int replaceMin(int value, double key) {
+    int minValue = getMin();
+    heapDown(0, value, key);
+    return minValue;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+  }
+
+  public int getValue(int idx) {
+    return values[idx];
+  }
+
+  public double getKey(int idx) {
+    return keys[idx];
+  }
+
+  private void heapUp(int idx, int value, double key) {
+    int curIdx = idx;
+    while (curIdx > 0) {
+      int parentIdx = (curIdx - 1) >> 1;
+      if (key >= keys[parentIdx]) {
+        break;
+      }
+      keys[curIdx] = keys[parentIdx];
+      values[curIdx] = values[parentIdx];
+      curIdx = parentIdx;
+    }
+    keys[curIdx] = key;
+    values[curIdx] = value;
+  }
+
+  private void heapDown(int idx, int value, double key) {
+    int curIdx = idx;
+    int half = size >>> 1;
+    while (curIdx < half) {
+      int childIdx = 2 * curIdx + 1;
+      int rightIdx = childIdx + 1;
+      if (rightIdx < size && keys[rightIdx] < keys[childIdx]) {
+        childIdx = rightIdx;
+      }
+      if (key <= keys[childIdx]) {
+        break;
+      }
+      keys[curIdx] = keys[childIdx];
+      values[curIdx] = values[childIdx];
+      curIdx = childIdx;
+    }
+    keys[curIdx] = key;
+    values[curIdx] = value;
+  }
+
+}
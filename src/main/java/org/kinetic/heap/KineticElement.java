@@ -1,10 +1,9 @@
 package org.kinetic.heap;
 
 import java.text.DecimalFormat;
-import java.util.function.Supplier;
+import java.util.function.DoubleSupplier;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 
 @RequiredArgsConstructor
 @Getter
@@ -16,21 +15,44 @@ public class KineticElement implements Comparable<KineticElement> {
   private final int id;
   private final double initialPriority;
   private final double rate;
-  private final Supplier<Integer> timeSupplier;
+  private final DoubleSupplier timeSupplier;
 
-  @Setter
-  private Certificate certificate;
+  public KineticElement(int id, double initialPriority, double rate) {
+    this(id, initialPriority, rate, null);
+  }
 
   public double getPriority() {
-    return initialPriority + rate * timeSupplier.get();
+    if (timeSupplier == null) {
+      throw new IllegalStateException("No time supplier, use priorityAt");
+    }
+    return priorityAt(timeSupplier.getAsDouble());
   }
 
+  public double priorityAt(double time) {
+    return initialPriority + rate * time;
+  }
+
+  public int compareAt(KineticElement other, double time) {
+    return Double.compare(priorityAt(time), other.priorityAt(time));
+  }
 
-  public void invalidateCertificate(Heap<Certificate> certificateHeap) {
-    if (certificate != null) {
-      certificateHeap.remove(certificate.getOwnIdx());
-      certificate = null;
+  public boolean isBeforeAfter(KineticElement other, double time) {
+    return isBeforeAfter(initialPriority, rate, other.initialPriority, other.rate, time);
+  }
+
+  /**
+   * Order of two trajectories just after the given time, a crossing at that time already counts.
+   * Equal rates never cross and keep the order of their initial priorities.
+   */
+  public static boolean isBeforeAfter(double initialPriority, double rate,
+      double otherInitialPriority, double otherRate, double time) {
+    if (rate == otherRate) {
+      return initialPriority < otherInitialPriority;
     }
+    if ((otherInitialPriority - initialPriority) / (rate - otherRate) <= time) {
+      return rate < otherRate;
+    }
+    return rate > otherRate;
   }
 
 
@@ -50,12 +72,15 @@ public class KineticElement implements Comparable<KineticElement> {
 
   @Override
   public String toString() {
-    return "[" + id + "] " + "P" + timeSupplier.get() + ": " + getPriority() + ", R:"
-        + FORMATTER.format(getRate()) + ", C: " + (certificate != null ? certificate : "N/A");
+    if (timeSupplier == null) {
+      return "[" + id + "] " + "P0: " + initialPriority + ", R:" + FORMATTER.format(getRate());
+    }
+    return "[" + id + "] " + "P" + timeSupplier.getAsDouble() + ": " + getPriority() + ", R:"
+        + FORMATTER.format(getRate());
   }
 
-  public KineticElement createCopy(Supplier<Integer> timeSupplier) {
-    return new KineticElement(id, rate, initialPriority, timeSupplier);
+  public KineticElement createCopy(DoubleSupplier timeSupplier) {
+    return new KineticElement(id, initialPriority, rate, timeSupplier);
   }
 
 
@@ -1,59 +1,98 @@
 package org.kinetic.heap;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
-public class KineticHeap implements IKineticHeap {
+public class KineticHeap extends AbstractKineticHeap {
 
   private final Heap<KineticElement> heap = new Heap<>(null);
 
-  private final Heap<Certificate> certificates = new Heap<>(new CertificateEventSink());
+  private int[] topKSlots = new int[0];
 
-  private int curTime;
-
-  private class CertificateEventSink implements IEventSink<Certificate> {
+  public KineticHeap() {
+    this(new CertificateQueue());
+  }
 
-    @Override
-    public void onBubbleUpEventBeforeSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+  public KineticHeap(ICertificateQueue certificates) {
+    this(certificates, 0.0);
+  }
 
-    }
+  public KineticHeap(ICertificateQueue certificates, double coincidenceEpsilon) {
+    this(certificates, coincidenceEpsilon, DEFAULT_ARITY);
+  }
 
-    @Override
-    public void onBubbleUpEventAfterSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
-      setCertificateIndex(idx);
-      setCertificateIndex(parentIdx);
-    }
+  public KineticHeap(ICertificateQueue certificates, double coincidenceEpsilon, int arity) {
+    super(certificates, coincidenceEpsilon, arity);
+  }
 
+  public static KineticHeap createLazy() {
+    return new KineticHeap(CertificateQueue.createLazy());
+  }
 
-    @Override
-    public void onBubbleDownEventBeforeSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
+  @Override
+  public void insert(KineticElement data) {
+    insertWithHandle(data);
+  }
 
+  public int insertWithHandle(KineticElement data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
     }
-
-    @Override
-    public void onBubbleDownEventAfterSwap(IHeap<Certificate> heap, int idx, int parentIdx) {
-      setCertificateIndex(idx);
-      setCertificateIndex(parentIdx);
+    heap.appendValue(data);
+    int handle = allocateHandle(heap.size() - 1);
+    heapUp(heap.size() - 1);
+    return handle;
+  }
+
+  /**
+   * Loads a batch of elements. A batch smaller than the heap is inserted one by one, otherwise
+   * the whole heap is rebuilt in O(n).
+   */
+  public void insertAll(Collection<? extends KineticElement> elements) {
+    insertAll(elements, null);
+  }
+
+  /**
+   * Same as {@link #insertAll(Collection)}, the handles of the elements are written into handles
+   * in iteration order unless it is null.
+   */
+  public void insertAll(Collection<? extends KineticElement> elements, int[] handles) {
+    // check everything up front, a failure halfway would leave a partly appended heap
+    if (handles != null && handles.length < elements.size()) {
+      throw new IllegalArgumentException("Handles array too short");
+    }
+    for (KineticElement element : elements) {
+      if (element == null) {
+        throw new IllegalArgumentException("Invalid data");
+      }
     }
 
-    @Override
-    public void onBubbleUpEventNoChange(IHeap<Certificate> heap, int idx) {
-      setCertificateIndex(idx);
+    int i = 0;
+    if (elements.size() < heap.size()) {
+      for (KineticElement element : elements) {
+        int handle = insertWithHandle(element);
+        if (handles != null) {
+          handles[i++] = handle;
+        }
+      }
+      return;
     }
 
-    @Override
-    public void onBubbleDownEventNoChange(IHeap<Certificate> heap, int idx) {
-      setCertificateIndex(idx);
+    for (KineticElement element : elements) {
+      heap.appendValue(element);
+      int handle = allocateHandle(heap.size() - 1);
+      if (handles != null) {
+        handles[i++] = handle;
+      }
     }
+    buildHeap();
   }
 
-
   @Override
-  public void insert(KineticElement data) {
-    if (data == null) {
-      throw new IllegalArgumentException("Invalid data");
-    }
-    heap.appendValue(data);
-    heapUp();
+  public int insert(int id, double initialPriority, double rate) {
+    return insertWithHandle(new KineticElement(id, initialPriority, rate, this::getTime));
   }
 
   @Override
@@ -61,22 +100,10 @@ public class KineticHeap implements IKineticHeap {
     KineticElement minElement = getMin();
 
     if (minElement != null) {
-      int lastIdx = heap.size() - 1;
-
-      heap.getValue(lastIdx).invalidateCertificate(certificates);
-      KineticElement old = heap.setValue(heap.getValue(lastIdx), 0);
-      heap.remove(heap.size() - 1);
-
-      heapDown();
-      return old;
+      removeSlot(Heap.getRoot());
     }
 
-    return null;
-  }
-
-  @Override
-  public int getCurTime() {
-    return curTime;
+    return minElement;
   }
 
   @Override
@@ -88,191 +115,77 @@ public class KineticHeap implements IKineticHeap {
   @Override
   public void clear() {
     heap.clear();
+    clearHandles();
     certificates.clear();
   }
 
-  @Override
-  public void fastForward(int nextTime) {
-    if (nextTime <= curTime) {
-      return;
+  /**
+   * @return the k smallest elements at the current time in priority order, the heap is not changed
+   */
+  public List<KineticElement> peekTopK(int k) {
+    int count = Math.max(Math.min(k, heap.size()), 0);
+    if (topKSlots.length < count) {
+      topKSlots = new int[count];
     }
+    count = peekTopKSlots(count, topKSlots);
 
-    curTime = nextTime;
-
-    while (true) {
-
-      Certificate minCertificate = certificates.getMin();
-      if (minCertificate == null || certificates.getMin().getExpirationTime() > nextTime) {
-        break;
-      }
-
-      Certificate certificate = certificates.getMin();
-
-      if (certificate.getOwnIdx() == -1) {
-        throw new IllegalArgumentException();
-      }
-
-      int elemIdx = certificate.getElementIdx();
-      int parentIdx = Heap.getParent(elemIdx);
-      invalidateCertificates(elemIdx, parentIdx);
-
-      heap.swap(elemIdx, parentIdx);
-
-      insertCertificates(elemIdx, certificate.getExpirationTime());
-
+    List<KineticElement> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(heap.getValue(topKSlots[i]));
     }
+    return result;
   }
 
   public KineticElement getValue(int idx) {
     return heap.getValue(idx);
   }
 
-  /*package*/
-  @VisibleForTesting
-  Heap<Certificate> getCertificates() {
-    return certificates;
-  }
-
   /*package*/
   @VisibleForTesting
   Heap<KineticElement> getHeap() {
     return heap;
   }
 
-  private void invalidateCertificates(int idx, int parentIdx) {
-    if (idx < heap.size()) {
-      heap.getValue(idx).invalidateCertificate(certificates);
-    }
-
-    if (idx != Heap.getRoot()) {
-      heap.getValue(parentIdx).invalidateCertificate(certificates);
-    }
-
-    int siblingCertIdx = Heap.getSibling(idx);
-    if (siblingCertIdx < heap.size()) {
-      heap.getValue(siblingCertIdx).invalidateCertificate(certificates);
-      int leftIdx = Heap.getLeftChild(idx);
-      if (leftIdx < heap.size()) {
-        heap.getValue(leftIdx).invalidateCertificate(certificates);
-        int rightIdx = Heap.getRightChild(idx);
-        if (rightIdx < heap.size()) {
-          heap.getValue(rightIdx).invalidateCertificate(certificates);
-        }
-      }
-    }
-  }
-
-  private void insertCertificates(int idx, double time) {
-
-    // must be new time
-    if (idx < heap.size()) {
-      createAndMaybeAddCertificate(idx, time);
-    }
-
-    if (idx != Heap.getRoot()) {
-      createAndMaybeAddCertificate(Heap.getParent(idx), time);
-    }
-
-    int siblingCertIdx = Heap.getSibling(idx);
-    if (siblingCertIdx < heap.size()) {
-      createAndMaybeAddCertificate(siblingCertIdx, time);
-      int leftIdx = Heap.getLeftChild(idx);
-      if (leftIdx < heap.size()) {
-        createAndMaybeAddCertificate(leftIdx, time);
-        int rightIdx = Heap.getRightChild(idx);
-        if (rightIdx < heap.size()) {
-          createAndMaybeAddCertificate(rightIdx, time);
-        }
-      }
-    }
-
-  }
-
   @Override
   public int size() {
     return heap.size();
   }
 
-  private int heapDown() {
-    int curIndex = 0;
-    int size = heap.size();
-    while (true) {
-      int leftChildIndex = Heap.getLeftChild(curIndex);
-      int rightChildIndex = Heap.getRightChild(curIndex);
-      if (leftChildIndex >= size) {
-        break;
-      }
-
-      boolean hasRight = rightChildIndex < size;
-      int smallestChildIndex =
-          hasRight && heap.getValue(rightChildIndex).compareTo(heap.getValue(leftChildIndex)) < 0
-              ? rightChildIndex : leftChildIndex;
-
-      if (heap.getValue(smallestChildIndex).compareTo(heap.getValue(curIndex)) < 0) {
-        invalidateCertificates(smallestChildIndex, curIndex);
-        heap.swap(smallestChildIndex, curIndex);
-        insertCertificates(smallestChildIndex, curTime);
-      } else {
-        break;
-      }
-      curIndex = smallestChildIndex;
-    }
-
-    return curIndex;
+  @Override
+  protected int getSlotId(int idx) {
+    return heap.getValue(idx).getId();
   }
 
-  private int heapUp() {
-    int curIndex = heap.size() - 1;
-    while (curIndex > Heap.getRoot()) {
-      int parentIndex = Heap.getParent(curIndex);
-      if (heap.getValue(curIndex).compareTo(heap.getValue(parentIndex)) < 0) {
-        if (curIndex != 0) {
-          invalidateCertificates(curIndex, parentIndex);
-        }
-
-        heap.swap(curIndex, parentIndex);
-        insertCertificates(curIndex, curTime);
-
-      } else {
-        break;
-      }
-
-      curIndex = parentIndex;
-    }
-
-    if (curIndex == heap.size() - 1) {
-      createAndMaybeAddCertificate(curIndex, curTime);
-    }
-    return curIndex;
+  @Override
+  protected double getSlotInitialPriority(int idx) {
+    return heap.getValue(idx).getInitialPriority();
   }
 
+  @Override
+  protected double getSlotRate(int idx) {
+    return heap.getValue(idx).getRate();
+  }
 
-  private void createAndMaybeAddCertificate(int idx, double newTime) {
-    if (idx == Heap.getRoot()) {
-      return;
-    }
-    KineticElement thisElement = heap.getValue(idx);
-
-    int parentIdx = Heap.getParent(idx);
-    KineticElement parentElement = heap.getValue(parentIdx);
-
-    double intersection = thisElement.getIntersectionTime(parentElement);
-    if (intersection > newTime) {
-      Certificate certificate = new Certificate(idx, intersection);
-      thisElement.setCertificate(certificate);
-
-      certificates.insert(certificate);
-    }
-
+  @Override
+  protected void swapSlots(int idx, int otherIdx) {
+    heap.swap(idx, otherIdx);
   }
 
+  @Override
+  protected void moveSlot(int fromIdx, int toIdx) {
+    heap.setValue(heap.getValue(fromIdx), toIdx);
+  }
 
-  private void setCertificateIndex(int idx) {
-    if (idx < certificates.size()) {
-      Certificate certificate = certificates.getValue(idx);
-      certificate.setOwnIdx(idx);
-    }
+  @Override
+  protected void removeLastSlot() {
+    heap.remove(heap.size() - 1);
   }
 
+  @Override
+  protected void setSlotTrajectory(int idx, double initialPriority, double rate) {
+    KineticElement element = heap.getValue(idx);
+    heap.setValue(new KineticElement(element.getId(), initialPriority, rate,
+        element.getTimeSupplier()), idx);
+  }
 
 }
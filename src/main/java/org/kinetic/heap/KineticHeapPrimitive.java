@@ -0,0 +1,604 @@
+package org.kinetic.heap;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Kinetic heap keeping its elements as a struct of primitive arrays indexed by heap slot. Each
+ * inserted element gets a stable int handle that survives sifting, the {@link KineticElement}
+ * based methods of {@link IKineticHeap} are kept for compatibility and allocate on every call.
+ *
+ * <p>The arrays are split into fixed size chunks shared copy-on-write between the heap, its
+ * snapshots and its forks, whichever side writes into a shared chunk first copies that chunk.
+ * Taking a snapshot only copies the chunk table. A fork also copies the handle arrays and the
+ * certificate queue flat, since almost every event rewrites them, so it costs O(n) and about half
+ * the memory per slot of a full copy.
+ */
+public class KineticHeapPrimitive extends AbstractKineticHeap {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private static final int CHUNK_SHIFT = 10;
+
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private static final long FILE_MAGIC = 0x4B494E4845415031L;
+
+  private static final int FILE_VERSION = 1;
+
+  private static final int FILE_HEADER_BYTES = 64;
+
+  private static final int FILE_BUFFER_BYTES = 1 << 20;
+
+  // chunks per mapped window, 512 MB of doubles
+  private static final int MAP_WINDOW_CHUNKS = 1 << 16;
+
+  private Chunk[] chunks;
+
+  // chunks created by this heap since the last snapshot or fork, anything else is shared
+  private Object owner = new Object();
+
+  private int size;
+
+  public KineticHeapPrimitive() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public KineticHeapPrimitive(int capacity) {
+    this(capacity, new CertificateQueue(capacity));
+  }
+
+  public KineticHeapPrimitive(int capacity, ICertificateQueue certificates) {
+    this(capacity, certificates, 0.0);
+  }
+
+  public KineticHeapPrimitive(int capacity, ICertificateQueue certificates,
+      double coincidenceEpsilon) {
+    this(capacity, certificates, coincidenceEpsilon, DEFAULT_ARITY);
+  }
+
+  public KineticHeapPrimitive(int capacity, ICertificateQueue certificates,
+      double coincidenceEpsilon, int arity) {
+    super(certificates, coincidenceEpsilon, arity);
+
+    chunks = new Chunk[0];
+    ensureCapacity(Math.max(capacity, 1));
+  }
+
+  private KineticHeapPrimitive(KineticHeapPrimitive other) {
+    super(other);
+
+    chunks = other.chunks.clone();
+    size = other.size;
+    other.owner = new Object();
+  }
+
+  @Override
+  public int insert(int id, double initialPriority, double rate) {
+    ensureCapacity(size + 1);
+
+    int idx = size++;
+    setSlot(idx, id, initialPriority, rate);
+    int handle = allocateHandle(idx);
+
+    heapUp(idx);
+    return handle;
+  }
+
+  /**
+   * Loads the first length entries of the arrays. A batch smaller than the heap is inserted one by
+   * one, otherwise the whole heap is rebuilt in O(n).
+   */
+  public void insertAll(int[] ids, double[] initialPriorities, double[] rates, int length) {
+    // check up front, a failure halfway would leave a partly appended heap
+    if (length < 0 || length > ids.length || length > initialPriorities.length
+        || length > rates.length) {
+      throw new IllegalArgumentException("Invalid batch length " + length);
+    }
+    if (length < size) {
+      for (int i = 0; i < length; i++) {
+        insert(ids[i], initialPriorities[i], rates[i]);
+      }
+      return;
+    }
+
+    ensureCapacity(size + length);
+    for (int i = 0; i < length; i++) {
+      setSlot(size, ids[i], initialPriorities[i], rates[i]);
+      allocateHandle(size++);
+    }
+    buildHeap();
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    insert(data.getId(), data.getInitialPriority(), data.getRate());
+  }
+
+  /**
+   * Forks the heap in O(n): the handles and certificates are copied, only the element chunks are
+   * shared with this heap until either side writes to them.
+   *
+   * @return independent heap with the same elements, handles, certificates and time
+   */
+  public KineticHeapPrimitive fork() {
+    return new KineticHeapPrimitive(this);
+  }
+
+  /**
+   * @return read only view of the slots and the time as they are now
+   */
+  public Snapshot snapshot() {
+    Snapshot snapshot = new Snapshot(chunks.clone(), size, curTime);
+    owner = new Object();
+    return snapshot;
+  }
+
+  /**
+   * Writes the heap into a binary file: a fixed header with the time, arity and counts followed by
+   * the slot arrays, the certificate expiration time of every slot and the handles, all little
+   * endian. {@link #load(Path)} maps it back without recomputing anything.
+   */
+  public void save(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, CREATE, WRITE, TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      int[] freeHandles = getFreeHandles();
+      buffer.putLong(FILE_MAGIC).putInt(FILE_VERSION).putInt(getArity())
+          .putDouble(getCoincidenceEpsilon()).putDouble(curTime)
+          .putInt(size).putInt(getHandleCount()).putInt(freeHandles.length);
+      buffer.position(FILE_HEADER_BYTES);
+
+      int chunkCount = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+      for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+        writeDoubles(channel, buffer, chunks[chunkIdx].initialPriorities, getChunkLength(chunkIdx));
+      }
+      for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+        writeDoubles(channel, buffer, chunks[chunkIdx].rates, getChunkLength(chunkIdx));
+      }
+
+      double[] expirationTimes = new double[CHUNK_SIZE];
+      for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+        int first = chunkIdx << CHUNK_SHIFT;
+        int length = getChunkLength(chunkIdx);
+        for (int i = 0; i < length; i++) {
+          expirationTimes[i] = getCertificateExpirationTime(first + i);
+        }
+        writeDoubles(channel, buffer, expirationTimes, length);
+      }
+
+      for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+        writeInts(channel, buffer, chunks[chunkIdx].ids, getChunkLength(chunkIdx));
+      }
+
+      int[] handles = new int[CHUNK_SIZE];
+      for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+        int first = chunkIdx << CHUNK_SHIFT;
+        int length = getChunkLength(chunkIdx);
+        for (int i = 0; i < length; i++) {
+          handles[i] = getHandle(first + i);
+        }
+        writeInts(channel, buffer, handles, length);
+      }
+      writeInts(channel, buffer, freeHandles, freeHandles.length);
+      flush(channel, buffer);
+    }
+  }
+
+  /**
+   * Restores a heap written by {@link #save(Path)}. The file is memory mapped and every section is
+   * bulk copied into the slot arrays, the stored certificates go into a fresh
+   * {@link CertificateQueue} as one batch.
+   */
+  public static KineticHeapPrimitive load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, READ)) {
+      if (channel.size() < FILE_HEADER_BYTES) {
+        throw new IOException("Not a kinetic heap file: " + path);
+      }
+      MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, FILE_HEADER_BYTES);
+      header.order(ByteOrder.LITTLE_ENDIAN);
+      if (header.getLong() != FILE_MAGIC || header.getInt() != FILE_VERSION) {
+        throw new IOException("Not a kinetic heap file: " + path);
+      }
+      int arity = header.getInt();
+      double coincidenceEpsilon = header.getDouble();
+      double time = header.getDouble();
+      int size = header.getInt();
+      int handleCount = header.getInt();
+      int freeHandleCount = header.getInt();
+
+      long expectedBytes = FILE_HEADER_BYTES + (long) size * (3 * Double.BYTES + 2 * Integer.BYTES)
+          + (long) freeHandleCount * Integer.BYTES;
+      if (channel.size() != expectedBytes) {
+        throw new IOException("Truncated kinetic heap file: " + path);
+      }
+
+      KineticHeapPrimitive heap = new KineticHeapPrimitive(size, new CertificateQueue(size),
+          coincidenceEpsilon, arity);
+      heap.size = size;
+      heap.curTime = time;
+
+      long offset = FILE_HEADER_BYTES;
+      offset = heap.readSection(channel, offset, Double.BYTES, (window, chunkIdx, length) ->
+          window.asDoubleBuffer().get(heap.chunks[chunkIdx].initialPriorities, 0, length));
+      offset = heap.readSection(channel, offset, Double.BYTES, (window, chunkIdx, length) ->
+          window.asDoubleBuffer().get(heap.chunks[chunkIdx].rates, 0, length));
+
+      int[] certificateSlots = new int[size];
+      double[] certificateTimes = new double[size];
+      int[] certificateCount = new int[1];
+      double[] expirationTimes = new double[CHUNK_SIZE];
+      offset = heap.readSection(channel, offset, Double.BYTES, (window, chunkIdx, length) -> {
+        window.asDoubleBuffer().get(expirationTimes, 0, length);
+        for (int i = 0; i < length; i++) {
+          if (!Double.isNaN(expirationTimes[i])) {
+            certificateSlots[certificateCount[0]] = (chunkIdx << CHUNK_SHIFT) + i;
+            certificateTimes[certificateCount[0]++] = expirationTimes[i];
+          }
+        }
+      });
+
+      offset = heap.readSection(channel, offset, Integer.BYTES, (window, chunkIdx, length) ->
+          window.asIntBuffer().get(heap.chunks[chunkIdx].ids, 0, length));
+
+      int[] slotHandles = new int[size];
+      offset = heap.readSection(channel, offset, Integer.BYTES, (window, chunkIdx, length) ->
+          window.asIntBuffer().get(slotHandles, chunkIdx << CHUNK_SHIFT, length));
+
+      int[] freeHandles = new int[freeHandleCount];
+      if (freeHandleCount > 0) {
+        MappedByteBuffer window = channel.map(MapMode.READ_ONLY, offset,
+            (long) freeHandleCount * Integer.BYTES);
+        window.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(freeHandles);
+      }
+
+      heap.restoreHandles(slotHandles, handleCount, freeHandles);
+      heap.certificates.addAll(certificateSlots, certificateTimes, certificateCount[0]);
+      return heap;
+    }
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    KineticElement minElement = getMin();
+    if (minElement != null) {
+      removeSlot(Heap.getRoot());
+    }
+    return minElement;
+  }
+
+  public int extractMinId() {
+    if (size == 0) {
+      throw new IllegalStateException("Heap is empty");
+    }
+    int id = getId(Heap.getRoot());
+    removeSlot(Heap.getRoot());
+    return id;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    if (size == 0) {
+      return null;
+    }
+    return createElement(Heap.getRoot());
+  }
+
+  public int getMinId() {
+    if (size == 0) {
+      throw new IllegalStateException("Heap is empty");
+    }
+    return getId(Heap.getRoot());
+  }
+
+  public double getMinPriority() {
+    return size == 0 ? Double.NaN : getPriority(Heap.getRoot());
+  }
+
+  /**
+   * Writes the ids of the k smallest elements at the current time into ids without changing the
+   * heap.
+   *
+   * @return number of ids written
+   */
+  public int peekTopKIds(int k, int[] ids) {
+    int count = peekTopKSlots(k, ids);
+    for (int i = 0; i < count; i++) {
+      ids[i] = getId(ids[i]);
+    }
+    return count;
+  }
+
+  public int getId(int idx) {
+    return chunks[idx >>> CHUNK_SHIFT].ids[idx & CHUNK_MASK];
+  }
+
+  public double getInitialPriority(int idx) {
+    return chunks[idx >>> CHUNK_SHIFT].initialPriorities[idx & CHUNK_MASK];
+  }
+
+  public double getRate(int idx) {
+    return chunks[idx >>> CHUNK_SHIFT].rates[idx & CHUNK_MASK];
+  }
+
+  public double getPriority(int idx) {
+    Chunk chunk = chunks[idx >>> CHUNK_SHIFT];
+    int offset = idx & CHUNK_MASK;
+    return chunk.initialPriorities[offset] + chunk.rates[offset] * curTime;
+  }
+
+  public KineticElement getValue(int idx) {
+    return createElement(idx);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+    clearHandles();
+    certificates.clear();
+  }
+
+  @Override
+  protected int getSlotId(int idx) {
+    return getId(idx);
+  }
+
+  @Override
+  protected double getSlotInitialPriority(int idx) {
+    return getInitialPriority(idx);
+  }
+
+  @Override
+  protected double getSlotRate(int idx) {
+    return getRate(idx);
+  }
+
+  @Override
+  protected void swapSlots(int idx, int otherIdx) {
+    Chunk chunk = writableChunk(idx);
+    Chunk otherChunk = writableChunk(otherIdx);
+    int offset = idx & CHUNK_MASK;
+    int otherOffset = otherIdx & CHUNK_MASK;
+
+    int id = chunk.ids[offset];
+    chunk.ids[offset] = otherChunk.ids[otherOffset];
+    otherChunk.ids[otherOffset] = id;
+
+    double initialPriority = chunk.initialPriorities[offset];
+    chunk.initialPriorities[offset] = otherChunk.initialPriorities[otherOffset];
+    otherChunk.initialPriorities[otherOffset] = initialPriority;
+
+    double rate = chunk.rates[offset];
+    chunk.rates[offset] = otherChunk.rates[otherOffset];
+    otherChunk.rates[otherOffset] = rate;
+  }
+
+  @Override
+  protected void moveSlot(int fromIdx, int toIdx) {
+    setSlot(toIdx, getId(fromIdx), getInitialPriority(fromIdx), getRate(fromIdx));
+  }
+
+  @Override
+  protected void removeLastSlot() {
+    size--;
+  }
+
+  @Override
+  protected void setSlotTrajectory(int idx, double initialPriority, double rate) {
+    Chunk chunk = writableChunk(idx);
+    chunk.initialPriorities[idx & CHUNK_MASK] = initialPriority;
+    chunk.rates[idx & CHUNK_MASK] = rate;
+  }
+
+  private void setSlot(int idx, int id, double initialPriority, double rate) {
+    Chunk chunk = writableChunk(idx);
+    int offset = idx & CHUNK_MASK;
+    chunk.ids[offset] = id;
+    chunk.initialPriorities[offset] = initialPriority;
+    chunk.rates[offset] = rate;
+  }
+
+  private Chunk writableChunk(int idx) {
+    int chunkIdx = idx >>> CHUNK_SHIFT;
+    Chunk chunk = chunks[chunkIdx];
+    if (chunk.owner != owner) {
+      chunk = new Chunk(chunk, owner);
+      chunks[chunkIdx] = chunk;
+    }
+    return chunk;
+  }
+
+  private int getChunkLength(int chunkIdx) {
+    return Math.min(CHUNK_SIZE, size - (chunkIdx << CHUNK_SHIFT));
+  }
+
+  // maps the section in windows of whole chunks and hands every chunk to the reader in order
+  private long readSection(FileChannel channel, long offset, int elementBytes,
+      ChunkReader reader) throws IOException {
+    int chunkCount = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+    for (int firstChunk = 0; firstChunk < chunkCount; firstChunk += MAP_WINDOW_CHUNKS) {
+      int endChunk = Math.min(firstChunk + MAP_WINDOW_CHUNKS, chunkCount);
+      long windowElements = Math.min((long) endChunk << CHUNK_SHIFT, size)
+          - ((long) firstChunk << CHUNK_SHIFT);
+      MappedByteBuffer window = channel.map(MapMode.READ_ONLY, offset,
+          windowElements * elementBytes);
+      window.order(ByteOrder.LITTLE_ENDIAN);
+
+      for (int chunkIdx = firstChunk; chunkIdx < endChunk; chunkIdx++) {
+        int length = getChunkLength(chunkIdx);
+        reader.read(window, chunkIdx, length);
+        window.position(window.position() + length * elementBytes);
+      }
+      offset += windowElements * elementBytes;
+    }
+    return offset;
+  }
+
+  private static void writeDoubles(FileChannel channel, ByteBuffer buffer, double[] values,
+      int length) throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      if (buffer.remaining() < Double.BYTES) {
+        flush(channel, buffer);
+      }
+      int count = Math.min(length - offset, buffer.remaining() / Double.BYTES);
+      buffer.asDoubleBuffer().put(values, offset, count);
+      buffer.position(buffer.position() + count * Double.BYTES);
+      offset += count;
+    }
+  }
+
+  private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int length)
+      throws IOException {
+    int offset = 0;
+    while (offset < length) {
+      if (buffer.remaining() < Integer.BYTES) {
+        flush(channel, buffer);
+      }
+      int count = Math.min(length - offset, buffer.remaining() / Integer.BYTES);
+      buffer.asIntBuffer().put(values, offset, count);
+      buffer.position(buffer.position() + count * Integer.BYTES);
+      offset += count;
+    }
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private KineticElement createElement(int idx) {
+    return new KineticElement(getId(idx), getInitialPriority(idx), getRate(idx), this::getTime);
+  }
+
+  private void ensureCapacity(int capacity) {
+    int chunkCount = (capacity + CHUNK_MASK) >>> CHUNK_SHIFT;
+    if (chunkCount <= chunks.length) {
+      return;
+    }
+    int oldChunkCount = chunks.length;
+    chunks = Arrays.copyOf(chunks, Math.max(chunkCount, oldChunkCount << 1));
+    for (int chunkIdx = oldChunkCount; chunkIdx < chunks.length; chunkIdx++) {
+      chunks[chunkIdx] = new Chunk(owner);
+    }
+  }
+
+  private interface ChunkReader {
+
+    // copies length elements from the current position of the window into the chunk
+    void read(ByteBuffer window, int chunkIdx, int length);
+  }
+
+  private static class Chunk {
+
+    private final int[] ids;
+
+    private final double[] initialPriorities;
+
+    private final double[] rates;
+
+    private final Object owner;
+
+    private Chunk(Object owner) {
+      ids = new int[CHUNK_SIZE];
+      initialPriorities = new double[CHUNK_SIZE];
+      rates = new double[CHUNK_SIZE];
+      this.owner = owner;
+    }
+
+    private Chunk(Chunk other, Object owner) {
+      ids = other.ids.clone();
+      initialPriorities = other.initialPriorities.clone();
+      rates = other.rates.clone();
+      this.owner = owner;
+    }
+  }
+
+  /**
+   * Immutable view of the heap slots at the time the snapshot was taken. Slot 0 is the minimum,
+   * the rest follow the heap layout of the source.
+   */
+  public static class Snapshot {
+
+    private final Chunk[] chunks;
+
+    private final int size;
+
+    private final double time;
+
+    private Snapshot(Chunk[] chunks, int size, double time) {
+      this.chunks = chunks;
+      this.size = size;
+      this.time = time;
+    }
+
+    public int size() {
+      return size;
+    }
+
+    public double getTime() {
+      return time;
+    }
+
+    public int getMinId() {
+      if (size == 0) {
+        throw new IllegalStateException("Heap is empty");
+      }
+      return getId(Heap.getRoot());
+    }
+
+    public double getMinPriority() {
+      return size == 0 ? Double.NaN : getPriority(Heap.getRoot());
+    }
+
+    public int getId(int idx) {
+      checkSlot(idx);
+      return chunks[idx >>> CHUNK_SHIFT].ids[idx & CHUNK_MASK];
+    }
+
+    public double getInitialPriority(int idx) {
+      checkSlot(idx);
+      return chunks[idx >>> CHUNK_SHIFT].initialPriorities[idx & CHUNK_MASK];
+    }
+
+    public double getRate(int idx) {
+      checkSlot(idx);
+      return chunks[idx >>> CHUNK_SHIFT].rates[idx & CHUNK_MASK];
+    }
+
+    public double getPriority(int idx) {
+      return getInitialPriority(idx) + getRate(idx) * time;
+    }
+
+    private void checkSlot(int idx) {
+      if (idx < 0 || idx >= size) {
+        throw new IndexOutOfBoundsException("Invalid slot " + idx);
+      }
+    }
+  }
+
+}
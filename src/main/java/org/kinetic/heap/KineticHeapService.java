@@ -0,0 +1,262 @@
+package org.kinetic.heap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Runs a kinetic heap behind a single writer thread. Producers put commands into a lock free
+ * mailbox and get a future back, the loop drains the mailbox in batches and applies them in
+ * submission order, a run of inserts becomes one bulk load and a run of advances one advance to
+ * the latest time. Futures are completed on the loop thread, so callbacks attached with the non
+ * async methods should be short.
+ */
+public class KineticHeapService implements AutoCloseable {
+
+  public static final int DEFAULT_MAX_BATCH = 1024;
+
+  private final KineticHeap heap;
+
+  private final int maxBatch;
+
+  private final Queue<Command<?>> mailbox = new ConcurrentLinkedQueue<>();
+
+  private final AtomicBoolean sleeping = new AtomicBoolean();
+
+  private final Thread loop;
+
+  private volatile boolean running = true;
+
+  public KineticHeapService() {
+    this(new KineticHeap(), DEFAULT_MAX_BATCH);
+  }
+
+  // the heap belongs to the loop thread afterwards and must not be touched directly
+  public KineticHeapService(KineticHeap heap, int maxBatch) {
+    if (heap == null) {
+      throw new IllegalArgumentException("Invalid heap");
+    }
+    if (maxBatch < 1) {
+      throw new IllegalArgumentException("Invalid batch size");
+    }
+    this.heap = heap;
+    this.maxBatch = maxBatch;
+
+    loop = new Thread(this::runLoop, "kinetic-heap-service");
+    loop.setDaemon(true);
+    loop.start();
+  }
+
+  /**
+   * @return future of the handle of the new element, whose priority follows the heap time
+   */
+  public CompletableFuture<Integer> insert(int id, double initialPriority, double rate) {
+    return submit(new InsertCommand(new KineticElement(id, initialPriority, rate,
+        heap::getTime)));
+  }
+
+  public CompletableFuture<Boolean> remove(int handle) {
+    return submit(heap -> heap.remove(handle));
+  }
+
+  public CompletableFuture<Void> changeTrajectory(int handle, double initialPriority,
+      double rate) {
+    return submit(heap -> {
+      heap.changeTrajectory(handle, initialPriority, rate);
+      return null;
+    });
+  }
+
+  /**
+   * @return future of the heap time once the advance, possibly merged with later ones, is done
+   */
+  public CompletableFuture<Double> advanceTo(double time) {
+    return submit(new AdvanceCommand(time));
+  }
+
+  public CompletableFuture<KineticElement> extractMin() {
+    return submit(KineticHeap::extractMin);
+  }
+
+  public CompletableFuture<KineticElement> getMin() {
+    return submit(KineticHeap::getMin);
+  }
+
+  /**
+   * Runs an arbitrary read or write on the loop thread, the heap must not escape the function.
+   */
+  public <R> CompletableFuture<R> submit(Function<KineticHeap, R> action) {
+    return submit(new Command<>(action));
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    LockSupport.unpark(loop);
+
+    // the loop must be gone before draining, an interrupt is kept for the caller
+    boolean interrupted = false;
+    while (loop.isAlive()) {
+      try {
+        loop.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+
+    // submitted while the loop was exiting
+    Command<?> command;
+    while ((command = mailbox.poll()) != null) {
+      command.future.completeExceptionally(new IllegalStateException("Service is closed"));
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private <R> CompletableFuture<R> submit(Command<R> command) {
+    if (!running) {
+      command.future.completeExceptionally(new IllegalStateException("Service is closed"));
+      return command.future;
+    }
+    mailbox.offer(command);
+    // close may have drained the mailbox between the check above and the offer, whoever takes the
+    // command out of the queue completes it
+    if (!running && mailbox.remove(command)) {
+      command.future.completeExceptionally(new IllegalStateException("Service is closed"));
+      return command.future;
+    }
+    if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+      LockSupport.unpark(loop);
+    }
+    return command.future;
+  }
+
+  private void runLoop() {
+    List<Command<?>> batch = new ArrayList<>(maxBatch);
+    while (running || !mailbox.isEmpty()) {
+      Command<?> command;
+      while (batch.size() < maxBatch && (command = mailbox.poll()) != null) {
+        batch.add(command);
+      }
+
+      if (batch.isEmpty()) {
+        // re-check after announcing the sleep, a producer either sees the flag or we see its command
+        sleeping.set(true);
+        if (mailbox.isEmpty() && running) {
+          LockSupport.park(this);
+        }
+        sleeping.set(false);
+        continue;
+      }
+
+      applyBatch(batch);
+      batch.clear();
+    }
+  }
+
+  private void applyBatch(List<Command<?>> batch) {
+    int i = 0;
+    while (i < batch.size()) {
+      Command<?> command = batch.get(i);
+      int runEnd = i + 1;
+      if (command instanceof InsertCommand) {
+        while (runEnd < batch.size() && batch.get(runEnd) instanceof InsertCommand) {
+          runEnd++;
+        }
+        applyInserts(batch.subList(i, runEnd));
+      } else if (command instanceof AdvanceCommand) {
+        while (runEnd < batch.size() && batch.get(runEnd) instanceof AdvanceCommand) {
+          runEnd++;
+        }
+        applyAdvances(batch.subList(i, runEnd));
+      } else {
+        command.apply(heap);
+      }
+      i = runEnd;
+    }
+  }
+
+  private void applyInserts(List<Command<?>> inserts) {
+    List<KineticElement> elements = new ArrayList<>(inserts.size());
+    for (Command<?> command : inserts) {
+      elements.add(((InsertCommand) command).element);
+    }
+
+    int[] handles = new int[inserts.size()];
+    try {
+      heap.insertAll(elements, handles);
+    } catch (RuntimeException e) {
+      inserts.forEach(command -> command.future.completeExceptionally(e));
+      return;
+    }
+    for (int i = 0; i < inserts.size(); i++) {
+      ((InsertCommand) inserts.get(i)).future.complete(handles[i]);
+    }
+  }
+
+  private void applyAdvances(List<Command<?>> advances) {
+    double time = Double.NEGATIVE_INFINITY;
+    for (Command<?> command : advances) {
+      time = Math.max(time, ((AdvanceCommand) command).time);
+    }
+
+    try {
+      heap.advanceTo(time);
+    } catch (RuntimeException e) {
+      advances.forEach(command -> command.future.completeExceptionally(e));
+      return;
+    }
+    for (Command<?> command : advances) {
+      ((AdvanceCommand) command).future.complete(heap.getTime());
+    }
+  }
+
+  private static class Command<R> {
+
+    private final Function<KineticHeap, R> action;
+
+    final CompletableFuture<R> future = new CompletableFuture<>();
+
+    private Command(Function<KineticHeap, R> action) {
+      this.action = action;
+    }
+
+    private void apply(KineticHeap heap) {
+      try {
+        future.complete(action.apply(heap));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+
+  private static class InsertCommand extends Command<Integer> {
+
+    private final KineticElement element;
+
+    private InsertCommand(KineticElement element) {
+      super(heap -> heap.insertWithHandle(element));
+      this.element = element;
+    }
+  }
+
+  private static class AdvanceCommand extends Command<Double> {
+
+    private final double time;
+
+    private AdvanceCommand(double time) {
+      super(heap -> {
+        heap.advanceTo(time);
+        return heap.getTime();
+      });
+      this.time = time;
+    }
+  }
+
+}
@@ -5,13 +5,20 @@ import java.util.List;
 
 public class KineticHeapTrivial implements IKineticHeap {
 
-  private final Heap<KineticElement> heap = new Heap<>(null);
+  private double curTime;
 
-  private int curTime;
+  // ordered just after the current time, so a crossing at that very time is already applied
+  private final Heap<KineticElement> heap = new Heap<>(null,
+      (e1, e2) -> e1.isBeforeAfter(e2, curTime) ? -1 : e2.isBeforeAfter(e1, curTime) ? 1 : 0);
 
   @Override
   public void fastForward(int nextTime) {
-    if (nextTime <= curTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > curTime)) {
       return;
     }
     curTime = nextTime;
@@ -24,6 +31,23 @@ public class KineticHeapTrivial implements IKineticHeap {
 
   }
 
+  // no certificates here, the next event is the earliest future crossing of a parent and a child
+  @Override
+  public double advanceToNextEvent() {
+    double eventTime = Double.POSITIVE_INFINITY;
+    for (int i = 1; i < heap.size(); i++) {
+      double intersection = heap.getValue(i).getIntersectionTime(heap.getValue(Heap.getParent(i)));
+      if (intersection > curTime && intersection < eventTime) {
+        eventTime = intersection;
+      }
+    }
+
+    if (eventTime != Double.POSITIVE_INFINITY) {
+      advanceTo(eventTime);
+    }
+    return eventTime;
+  }
+
   /*package*/
   @VisibleForTesting
   KineticElement getValue(int idx) {
@@ -32,6 +56,11 @@ public class KineticHeapTrivial implements IKineticHeap {
 
   @Override
   public int getCurTime() {
+    return (int) curTime;
+  }
+
+  @Override
+  public double getTime() {
     return curTime;
   }
 
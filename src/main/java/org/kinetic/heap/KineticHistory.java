@@ -0,0 +1,276 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only record of a kinetic heap. Inserts, removes and trajectory changes go into a
+ * primitive operation log and every change of the minimum into a separate min log, the swaps of
+ * certificate failures themselves need no record because the order at any time follows from the
+ * trajectories alive at that time. The live trajectories are copied into a checkpoint after at
+ * least the checkpoint interval operations and at least as many operations as the copy has
+ * trajectories, so a checkpoint never holds more entries than the operations since the previous
+ * one and all checkpoints together stay within the size of the operation log. A past order costs a
+ * binary search, one checkpoint copy and at most max(interval, trajectories) replayed operations.
+ */
+public class KineticHistory {
+
+  public static final int DEFAULT_CHECKPOINT_INTERVAL = 4096;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final byte INSERT = 0;
+  private static final byte REMOVE = 1;
+  private static final byte CHANGE = 2;
+  private static final byte CLEAR = 3;
+
+  private final int checkpointInterval;
+
+  private double[] opTimes = new double[INITIAL_CAPACITY];
+
+  private byte[] opKinds = new byte[INITIAL_CAPACITY];
+
+  private int[] opHandles = new int[INITIAL_CAPACITY];
+
+  private int[] opIds = new int[INITIAL_CAPACITY];
+
+  private double[] opInitialPriorities = new double[INITIAL_CAPACITY];
+
+  private double[] opRates = new double[INITIAL_CAPACITY];
+
+  private int opCount;
+
+  private double[] minTimes = new double[INITIAL_CAPACITY];
+
+  private int[] minIds = new int[INITIAL_CAPACITY];
+
+  private int minCount;
+
+  private final Trajectories live = new Trajectories();
+
+  private Trajectories[] checkpoints = new Trajectories[INITIAL_CAPACITY];
+
+  private int[] checkpointOps = new int[INITIAL_CAPACITY];
+
+  private int checkpointCount;
+
+  private int lastCheckpointOp;
+
+  public KineticHistory() {
+    this(DEFAULT_CHECKPOINT_INTERVAL);
+  }
+
+  public KineticHistory(int checkpointInterval) {
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException("Invalid checkpoint interval");
+    }
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  public void recordInsert(double time, int handle, int id, double initialPriority, double rate) {
+    append(time, INSERT, handle, id, initialPriority, rate);
+  }
+
+  public void recordRemove(double time, int handle) {
+    append(time, REMOVE, handle, 0, 0.0, 0.0);
+  }
+
+  public void recordChange(double time, int handle, double initialPriority, double rate) {
+    append(time, CHANGE, handle, 0, initialPriority, rate);
+  }
+
+  public void recordClear(double time) {
+    append(time, CLEAR, -1, 0, 0.0, 0.0);
+  }
+
+  /**
+   * Records the minimum after a change, repeats of the current minimum are dropped.
+   *
+   * @param id id of the minimum, -1 for an empty heap
+   */
+  public void recordMin(double time, int id) {
+    int current = minCount == 0 ? -1 : minIds[minCount - 1];
+    if (id == current) {
+      return;
+    }
+    if (minCount == minIds.length) {
+      minTimes = Arrays.copyOf(minTimes, minCount << 1);
+      minIds = Arrays.copyOf(minIds, minCount << 1);
+    }
+    minTimes[minCount] = time;
+    minIds[minCount] = id;
+    minCount++;
+  }
+
+  /**
+   * @return id of the minimum just after the given time, -1 if the heap was empty then
+   */
+  public int getMinAt(double time) {
+    int idx = upperBound(minTimes, minCount, time) - 1;
+    return idx < 0 ? -1 : minIds[idx];
+  }
+
+  /**
+   * @return ids of the elements alive just after the given time ordered by their priority then,
+   * times past the last record use the trajectories alive now
+   */
+  public int[] getOrderAt(double time) {
+    int opEnd = upperBound(opTimes, opCount, time);
+
+    int checkpoint = upperBound(checkpointOps, checkpointCount, opEnd) - 1;
+    Trajectories state = checkpoint < 0 ? new Trajectories() : checkpoints[checkpoint].copy();
+    for (int op = checkpoint < 0 ? 0 : checkpointOps[checkpoint]; op < opEnd; op++) {
+      apply(state, op);
+    }
+
+    return state.sortedIdsAt(time);
+  }
+
+  public int getOperationCount() {
+    return opCount;
+  }
+
+  public int getCheckpointCount() {
+    return checkpointCount;
+  }
+
+  /**
+   * @return trajectories held by all checkpoints together
+   */
+  public long getCheckpointEntryCount() {
+    long entries = 0;
+    for (int checkpoint = 0; checkpoint < checkpointCount; checkpoint++) {
+      entries += checkpoints[checkpoint].length;
+    }
+    return entries;
+  }
+
+  private void append(double time, byte kind, int handle, int id, double initialPriority,
+      double rate) {
+    if (opCount == opTimes.length) {
+      int newLength = opCount << 1;
+      opTimes = Arrays.copyOf(opTimes, newLength);
+      opKinds = Arrays.copyOf(opKinds, newLength);
+      opHandles = Arrays.copyOf(opHandles, newLength);
+      opIds = Arrays.copyOf(opIds, newLength);
+      opInitialPriorities = Arrays.copyOf(opInitialPriorities, newLength);
+      opRates = Arrays.copyOf(opRates, newLength);
+    }
+    opTimes[opCount] = time;
+    opKinds[opCount] = kind;
+    opHandles[opCount] = handle;
+    opIds[opCount] = id;
+    opInitialPriorities[opCount] = initialPriority;
+    opRates[opCount] = rate;
+    apply(live, opCount++);
+
+    if (opCount - lastCheckpointOp >= Math.max(checkpointInterval, live.length)) {
+      if (checkpointCount == checkpoints.length) {
+        checkpoints = Arrays.copyOf(checkpoints, checkpointCount << 1);
+        checkpointOps = Arrays.copyOf(checkpointOps, checkpointCount << 1);
+      }
+      checkpoints[checkpointCount] = live.copy();
+      checkpointOps[checkpointCount] = opCount;
+      checkpointCount++;
+      lastCheckpointOp = opCount;
+    }
+  }
+
+  private void apply(Trajectories state, int op) {
+    switch (opKinds[op]) {
+      case INSERT -> state.set(opHandles[op], opIds[op], opInitialPriorities[op], opRates[op]);
+      case REMOVE -> state.alive[opHandles[op]] = false;
+      case CHANGE -> state.set(opHandles[op], state.ids[opHandles[op]], opInitialPriorities[op],
+          opRates[op]);
+      default -> state.clear();
+    }
+  }
+
+  // number of leading times not after the given one
+  private static int upperBound(double[] times, int count, double time) {
+    int first = 0;
+    int last = count;
+    while (first < last) {
+      int mid = (first + last) >>> 1;
+      if (times[mid] <= time) {
+        first = mid + 1;
+      } else {
+        last = mid;
+      }
+    }
+    return first;
+  }
+
+  private static int upperBound(int[] values, int count, int value) {
+    int first = 0;
+    int last = count;
+    while (first < last) {
+      int mid = (first + last) >>> 1;
+      if (values[mid] <= value) {
+        first = mid + 1;
+      } else {
+        last = mid;
+      }
+    }
+    return first;
+  }
+
+  // trajectories indexed by heap handle
+  private static class Trajectories {
+
+    private int[] ids = new int[0];
+
+    private double[] initialPriorities = new double[0];
+
+    private double[] rates = new double[0];
+
+    private boolean[] alive = new boolean[0];
+
+    private int length;
+
+    private void set(int handle, int id, double initialPriority, double rate) {
+      if (handle >= ids.length) {
+        int newLength = Math.max(handle + 1, ids.length << 1);
+        ids = Arrays.copyOf(ids, newLength);
+        initialPriorities = Arrays.copyOf(initialPriorities, newLength);
+        rates = Arrays.copyOf(rates, newLength);
+        alive = Arrays.copyOf(alive, newLength);
+      }
+      ids[handle] = id;
+      initialPriorities[handle] = initialPriority;
+      rates[handle] = rate;
+      alive[handle] = true;
+      length = Math.max(length, handle + 1);
+    }
+
+    private void clear() {
+      Arrays.fill(alive, 0, length, false);
+      length = 0;
+    }
+
+    private Trajectories copy() {
+      Trajectories copy = new Trajectories();
+      copy.ids = Arrays.copyOf(ids, length);
+      copy.initialPriorities = Arrays.copyOf(initialPriorities, length);
+      copy.rates = Arrays.copyOf(rates, length);
+      copy.alive = Arrays.copyOf(alive, length);
+      copy.length = length;
+      return copy;
+    }
+
+    // ties at the time itself go to the lower rate, the order just after it
+    private int[] sortedIdsAt(double time) {
+      return IntStream.range(0, length)
+          .filter(handle -> alive[handle])
+          .boxed()
+          .sorted((h1, h2) -> {
+            int cmp = Double.compare(initialPriorities[h1] + rates[h1] * time,
+                initialPriorities[h2] + rates[h2] * time);
+            return cmp != 0 ? cmp : Double.compare(rates[h1], rates[h2]);
+          })
+          .mapToInt(handle -> ids[handle])
+          .toArray();
+    }
+  }
+
+}
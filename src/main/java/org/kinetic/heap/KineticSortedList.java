@@ -0,0 +1,445 @@
+package org.kinetic.heap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Kinetic sorted list: keeps every element in priority order with one certificate per adjacent
+ * pair, so the k smallest elements, the rank of an id or a priority range are read off the order
+ * without draining anything. Ids are unique. The order lives in an array window starting at head,
+ * inserts and removes shift whichever side of the window is shorter and extractMin only moves head.
+ * Such a shift moves up to half of the elements and rewrites their positions, so insert, remove
+ * cost O(n) in the worst case, unlike the logarithmic heaps. Reads by rank are O(1) and lookups by
+ * id go through a primitive hash table.
+ */
+public class KineticSortedList implements IKineticHeap {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final ICertificateQueue certificates;
+
+  // open addressing table from id to slot, linear probing, a slot of -1 marks a free entry
+  private int[] idKeys;
+
+  private int[] idSlots;
+
+  private int idCount;
+
+  // by slot, a slot is also the certificate key for the pair the element starts
+  private KineticElement[] elements;
+
+  private int[] positions;
+
+  private int[] freeSlots;
+
+  private int freeSlotCount;
+
+  // slots in priority order within [head, head + size)
+  private int[] order;
+
+  private int head;
+
+  private int size;
+
+  private int[] pending = new int[DEFAULT_CAPACITY];
+
+  private double curTime;
+
+  public KineticSortedList() {
+    this(new CertificateQueue());
+  }
+
+  public KineticSortedList(ICertificateQueue certificates) {
+    if (certificates == null || !certificates.isEmpty()) {
+      throw new IllegalArgumentException("Invalid certificate queue");
+    }
+    this.certificates = certificates;
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    if (findSlot(data.getId()) != -1) {
+      throw new IllegalArgumentException("Duplicate id " + data.getId());
+    }
+
+    int slot = allocateSlot();
+    elements[slot] = data;
+    putSlot(data.getId(), slot);
+
+    int pos = openGap(findRank(data));
+    order[pos] = slot;
+    positions[slot] = pos;
+    size++;
+
+    repair(pos - 1, pos, curTime);
+  }
+
+  public boolean remove(int id) {
+    int slot = findSlot(id);
+    if (slot == -1) {
+      return false;
+    }
+    removeSlot(slot);
+    return true;
+  }
+
+  public boolean contains(int id) {
+    return findSlot(id) != -1;
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    if (size == 0) {
+      return null;
+    }
+    KineticElement minElement = elements[order[head]];
+    removeSlot(order[head]);
+    return minElement;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    return size == 0 ? null : elements[order[head]];
+  }
+
+  public KineticElement get(int rank) {
+    if (rank < 0 || rank >= size) {
+      throw new IndexOutOfBoundsException("Invalid rank " + rank);
+    }
+    return elements[order[head + rank]];
+  }
+
+  /**
+   * @return the k smallest elements at the current time in priority order
+   */
+  public List<KineticElement> topK(int k) {
+    int count = Math.min(Math.max(k, 0), size);
+    List<KineticElement> result = new ArrayList<>(count);
+    for (int pos = head; pos < head + count; pos++) {
+      result.add(elements[order[pos]]);
+    }
+    return result;
+  }
+
+  /**
+   * @return zero based position of the id in the current order, -1 if it is not in the list
+   */
+  public int rank(int id) {
+    int slot = findSlot(id);
+    return slot == -1 ? -1 : positions[slot] - head;
+  }
+
+  /**
+   * @return elements whose priority at the current time lies within [lo, hi], in priority order
+   */
+  public List<KineticElement> rangeByPriority(double lo, double hi) {
+    List<KineticElement> result = new ArrayList<>();
+    int first = head;
+    int last = head + size;
+    while (first < last) {
+      int mid = (first + last) >>> 1;
+      if (elements[order[mid]].priorityAt(curTime) < lo) {
+        first = mid + 1;
+      } else {
+        last = mid;
+      }
+    }
+
+    for (int pos = first; pos < head + size; pos++) {
+      KineticElement element = elements[order[pos]];
+      if (element.priorityAt(curTime) > hi) {
+        break;
+      }
+      result.add(element);
+    }
+    return result;
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > curTime)) {
+      return;
+    }
+
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= nextTime) {
+      processEvent();
+    }
+    curTime = nextTime;
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    if (certificates.isEmpty()) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double eventTime = certificates.getMinExpirationTime();
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= eventTime) {
+      processEvent();
+    }
+    curTime = eventTime;
+    return eventTime;
+  }
+
+  @Override
+  public int getCurTime() {
+    return (int) curTime;
+  }
+
+  @Override
+  public double getTime() {
+    return curTime;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    certificates.clear();
+    allocate(DEFAULT_CAPACITY);
+    head = 0;
+    size = 0;
+  }
+
+  /*package*/ ICertificateQueue getCertificates() {
+    return certificates;
+  }
+
+  private void processEvent() {
+    double eventTime = certificates.getMinExpirationTime();
+    int pos = positions[certificates.extractMin()];
+    repair(pos, pos, eventTime);
+  }
+
+  private void removeSlot(int slot) {
+    int pos = positions[slot];
+    certificates.remove(slot);
+    removeSlotId(elements[slot].getId());
+    elements[slot] = null;
+    freeSlots[freeSlotCount++] = slot;
+
+    int prev = closeGap(pos);
+    size--;
+    // the predecessor now starts a pair with a different element
+    repair(prev, prev, curTime);
+  }
+
+  /**
+   * Re-checks the pairs starting at positions first..last. A pair that is already out of order
+   * just after the given time is swapped on the spot and its neighbours are re-checked, this
+   * settles several elements crossing in one point, otherwise the pair gets a fresh certificate.
+   */
+  private void repair(int first, int last, double time) {
+    int count = 0;
+    for (int pos = first; pos <= last; pos++) {
+      pending = push(pending, count++, pos);
+    }
+
+    while (count > 0) {
+      int pos = pending[--count];
+      if (pos < head || pos + 1 >= head + size) {
+        if (pos >= head && pos < head + size) {
+          certificates.remove(order[pos]);
+        }
+        continue;
+      }
+
+      int slot = order[pos];
+      int nextSlot = order[pos + 1];
+      if (elements[nextSlot].isBeforeAfter(elements[slot], time)) {
+        swap(pos, pos + 1);
+        pending = push(pending, count++, pos - 1);
+        pending = push(pending, count++, pos + 1);
+        pending = push(pending, count++, pos);
+        continue;
+      }
+
+      certificates.remove(slot);
+      double intersection = elements[slot].getIntersectionTime(elements[nextSlot]);
+      if (intersection > time) {
+        certificates.add(slot, intersection);
+      }
+    }
+  }
+
+  // rank of the first element that does not come before the given one just after the current time
+  private int findRank(KineticElement element) {
+    int first = 0;
+    int last = size;
+    while (first < last) {
+      int mid = (first + last) >>> 1;
+      if (elements[order[head + mid]].isBeforeAfter(element, curTime)) {
+        first = mid + 1;
+      } else {
+        last = mid;
+      }
+    }
+    return first;
+  }
+
+  private void swap(int pos, int otherPos) {
+    int slot = order[pos];
+    order[pos] = order[otherPos];
+    order[otherPos] = slot;
+    positions[order[pos]] = pos;
+    positions[slot] = otherPos;
+  }
+
+  // frees the position for the given rank and returns it
+  private int openGap(int rank) {
+    if (head > 0 && rank < size - rank) {
+      head--;
+      shift(head + 1, head, rank);
+      return head + rank;
+    }
+
+    if (head + size == order.length) {
+      compact();
+    }
+    int pos = head + rank;
+    shift(pos, pos + 1, size - rank);
+    return pos;
+  }
+
+  // closes the gap left at pos and returns the position of the removed element's predecessor
+  private int closeGap(int pos) {
+    int rank = pos - head;
+    if (rank < size - 1 - rank) {
+      shift(head, head + 1, rank);
+      head++;
+      return pos;
+    }
+    shift(pos + 1, pos, size - 1 - rank);
+    return pos - 1;
+  }
+
+  private void shift(int from, int to, int length) {
+    System.arraycopy(order, from, order, to, length);
+    for (int pos = to; pos < to + length; pos++) {
+      positions[order[pos]] = pos;
+    }
+  }
+
+  private void compact() {
+    int[] newOrder = size < order.length >> 1 ? order : new int[order.length << 1];
+    System.arraycopy(order, head, newOrder, 0, size);
+    order = newOrder;
+    head = 0;
+    for (int pos = 0; pos < size; pos++) {
+      positions[order[pos]] = pos;
+    }
+  }
+
+  private int allocateSlot() {
+    if (freeSlotCount == 0) {
+      int oldLength = elements.length;
+      int newLength = oldLength << 1;
+      elements = Arrays.copyOf(elements, newLength);
+      positions = Arrays.copyOf(positions, newLength);
+      freeSlots = new int[newLength];
+      for (int slot = newLength - 1; slot >= oldLength; slot--) {
+        freeSlots[freeSlotCount++] = slot;
+      }
+    }
+    return freeSlots[--freeSlotCount];
+  }
+
+  private void allocate(int capacity) {
+    elements = new KineticElement[capacity];
+    positions = new int[capacity];
+    order = new int[capacity];
+    freeSlots = new int[capacity];
+    freeSlotCount = 0;
+    for (int slot = capacity - 1; slot >= 0; slot--) {
+      freeSlots[freeSlotCount++] = slot;
+    }
+    allocateIds(capacity << 1);
+  }
+
+  private int findSlot(int id) {
+    int mask = idSlots.length - 1;
+    for (int entry = hashId(id) & mask; idSlots[entry] != -1; entry = (entry + 1) & mask) {
+      if (idKeys[entry] == id) {
+        return idSlots[entry];
+      }
+    }
+    return -1;
+  }
+
+  // the id must not be in the table yet
+  private void putSlot(int id, int slot) {
+    if ((idCount + 1) << 1 > idSlots.length) {
+      int[] oldKeys = idKeys;
+      int[] oldSlots = idSlots;
+      allocateIds(oldSlots.length << 1);
+      for (int entry = 0; entry < oldSlots.length; entry++) {
+        if (oldSlots[entry] != -1) {
+          putSlot(oldKeys[entry], oldSlots[entry]);
+        }
+      }
+    }
+
+    int mask = idSlots.length - 1;
+    int entry = hashId(id) & mask;
+    while (idSlots[entry] != -1) {
+      entry = (entry + 1) & mask;
+    }
+    idKeys[entry] = id;
+    idSlots[entry] = slot;
+    idCount++;
+  }
+
+  // the id must be in the table, later entries of the probe run are shifted back into the gap
+  private void removeSlotId(int id) {
+    int mask = idSlots.length - 1;
+    int gap = hashId(id) & mask;
+    while (idKeys[gap] != id || idSlots[gap] == -1) {
+      gap = (gap + 1) & mask;
+    }
+
+    for (int entry = (gap + 1) & mask; idSlots[entry] != -1; entry = (entry + 1) & mask) {
+      int home = hashId(idKeys[entry]) & mask;
+      if (((entry - home) & mask) >= ((entry - gap) & mask)) {
+        idKeys[gap] = idKeys[entry];
+        idSlots[gap] = idSlots[entry];
+        gap = entry;
+      }
+    }
+    idSlots[gap] = -1;
+    idCount--;
+  }
+
+  private void allocateIds(int capacity) {
+    idKeys = new int[capacity];
+    idSlots = new int[capacity];
+    Arrays.fill(idSlots, -1);
+    idCount = 0;
+  }
+
+  private static int hashId(int id) {
+    int hash = id * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static int[] push(int[] stack, int count, int value) {
+    if (count == stack.length) {
+      stack = Arrays.copyOf(stack, count << 1);
+    }
+    stack[count] = value;
+    return stack;
+  }
+
+}
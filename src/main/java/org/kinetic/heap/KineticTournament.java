@@ -0,0 +1,232 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+
+/**
+ * Kinetic tournament: elements sit at the leaves of a complete binary tree and every internal
+ * node keeps the winner of its two subtrees together with one certificate saying when the loser
+ * overtakes it. An event or an update only replays the matches on one leaf to root path, a leaf
+ * slot is a stable handle for the element until it is removed.
+ */
+public class KineticTournament implements IKineticHeap {
+
+  private static final int MIN_CAPACITY = 2;
+
+  private final ICertificateQueue certificates;
+
+  private KineticElement[] elements;
+
+  private int[] winners;
+
+  private int[] freeSlots;
+
+  private int freeSlotCount;
+
+  private int capacity;
+
+  private int size;
+
+  private double curTime;
+
+  public KineticTournament() {
+    this(new CertificateQueue());
+  }
+
+  public KineticTournament(ICertificateQueue certificates) {
+    if (certificates == null || !certificates.isEmpty()) {
+      throw new IllegalArgumentException("Invalid certificate queue");
+    }
+    this.certificates = certificates;
+    allocate(MIN_CAPACITY);
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    insertWithHandle(data);
+  }
+
+  public int insertWithHandle(KineticElement data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    if (freeSlotCount == 0) {
+      grow();
+    }
+
+    int slot = freeSlots[--freeSlotCount];
+    elements[slot] = data;
+    winners[capacity + slot] = slot;
+    size++;
+    replayPath(capacity + slot, curTime);
+    return slot;
+  }
+
+  public boolean remove(int handle) {
+    if (!contains(handle)) {
+      return false;
+    }
+
+    elements[handle] = null;
+    winners[capacity + handle] = -1;
+    freeSlots[freeSlotCount++] = handle;
+    size--;
+    replayPath(capacity + handle, curTime);
+    return true;
+  }
+
+  public boolean contains(int handle) {
+    return handle >= 0 && handle < capacity && elements[handle] != null;
+  }
+
+  public KineticElement getValue(int handle) {
+    return elements[handle];
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    if (size == 0) {
+      return null;
+    }
+    int slot = winners[1];
+    KineticElement minElement = elements[slot];
+    remove(slot);
+    return minElement;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    return size == 0 ? null : elements[winners[1]];
+  }
+
+  public int getMinHandle() {
+    return size == 0 ? -1 : winners[1];
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > curTime)) {
+      return;
+    }
+
+    curTime = nextTime;
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= nextTime) {
+      processEvent();
+    }
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    if (certificates.isEmpty()) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+    double eventTime = certificates.getMinExpirationTime();
+    curTime = eventTime;
+    while (!certificates.isEmpty() && certificates.getMinExpirationTime() <= eventTime) {
+      processEvent();
+    }
+    return eventTime;
+  }
+
+  @Override
+  public int getCurTime() {
+    return (int) curTime;
+  }
+
+  @Override
+  public double getTime() {
+    return curTime;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    certificates.clear();
+    allocate(MIN_CAPACITY);
+    size = 0;
+  }
+
+  /*package*/ ICertificateQueue getCertificates() {
+    return certificates;
+  }
+
+  /*package*/ int getCapacity() {
+    return capacity;
+  }
+
+  /*package*/ int getWinner(int node) {
+    return winners[node];
+  }
+
+  private void processEvent() {
+    double eventTime = certificates.getMinExpirationTime();
+    int node = certificates.extractMin();
+    replayMatch(node, eventTime);
+    replayPath(node, eventTime);
+  }
+
+  private void replayPath(int node, double time) {
+    for (int parent = node >> 1; parent >= 1; parent >>= 1) {
+      replayMatch(parent, time);
+    }
+  }
+
+  private void replayMatch(int node, double time) {
+    certificates.remove(node);
+
+    int left = winners[node << 1];
+    int right = winners[(node << 1) + 1];
+    if (left == -1 || right == -1) {
+      winners[node] = left == -1 ? right : left;
+      return;
+    }
+
+    int winner = elements[left].isBeforeAfter(elements[right], time) ? left : right;
+    int loser = winner == left ? right : left;
+    winners[node] = winner;
+
+    double intersection = elements[winner].getIntersectionTime(elements[loser]);
+    if (intersection > time) {
+      certificates.add(node, intersection);
+    }
+  }
+
+  // doubles the leaf count keeping every slot, so handles survive, and replays all matches
+  private void grow() {
+    KineticElement[] oldElements = elements;
+    int oldCapacity = capacity;
+    allocate(oldCapacity << 1);
+    freeSlotCount -= oldCapacity;
+
+    certificates.clear();
+    System.arraycopy(oldElements, 0, elements, 0, oldCapacity);
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      winners[capacity + slot] = slot;
+    }
+    for (int node = capacity - 1; node >= 1; node--) {
+      replayMatch(node, curTime);
+    }
+  }
+
+  private void allocate(int newCapacity) {
+    capacity = newCapacity;
+    elements = new KineticElement[newCapacity];
+    winners = new int[newCapacity << 1];
+    Arrays.fill(winners, -1);
+    freeSlots = new int[newCapacity];
+    freeSlotCount = newCapacity;
+    for (int i = 0; i < newCapacity; i++) {
+      freeSlots[i] = newCapacity - 1 - i;
+    }
+  }
+
+}
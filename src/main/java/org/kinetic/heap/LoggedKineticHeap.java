@@ -0,0 +1,158 @@
+package org.kinetic.heap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Kinetic heap that records every write in a {@link WriteAheadLog}. An operation is logged once
+ * the wrapped heap has accepted it, so rejected operations never reach the log and the log
+ * replays without errors. Handle operations need a heap with handles, the handles are the same
+ * after recovery because the replay allocates them in the same order.
+ */
+public class LoggedKineticHeap implements IKineticHeap, AutoCloseable {
+
+  private final IKineticHeap heap;
+
+  private final WriteAheadLog log;
+
+  // the heap should come from log.recover, changes made to it directly are not logged
+  public LoggedKineticHeap(IKineticHeap heap, WriteAheadLog log) {
+    if (heap == null || log == null) {
+      throw new IllegalArgumentException("Invalid heap or log");
+    }
+    this.heap = heap;
+    this.log = log;
+  }
+
+  /**
+   * @return the wrapped heap for reads, writes must go through this class to be logged
+   */
+  public IKineticHeap getHeap() {
+    return heap;
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    heap.insert(data);
+    try {
+      log.logInsert(data.getId(), data.getInitialPriority(), data.getRate());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    KineticElement minElement = heap.extractMin();
+    if (minElement != null) {
+      try {
+        log.logExtractMin();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return minElement;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    return heap.getMin();
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > heap.getTime())) {
+      return;
+    }
+    heap.advanceTo(nextTime);
+    try {
+      log.logAdvance(nextTime);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    double eventTime = heap.advanceToNextEvent();
+    if (eventTime != Double.POSITIVE_INFINITY) {
+      try {
+        log.logNextEvent();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return eventTime;
+  }
+
+  public void changeTrajectory(int handle, double newIntercept, double newRate) {
+    WriteAheadLog.asHandleHeap(heap).changeTrajectory(handle, newIntercept, newRate);
+    try {
+      log.logChange(handle, newIntercept, newRate);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public boolean remove(int handle) {
+    if (!WriteAheadLog.asHandleHeap(heap).remove(handle)) {
+      return false;
+    }
+    try {
+      log.logRemove(handle);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return true;
+  }
+
+  @Override
+  public int getCurTime() {
+    return heap.getCurTime();
+  }
+
+  @Override
+  public double getTime() {
+    return heap.getTime();
+  }
+
+  @Override
+  public int size() {
+    return heap.size();
+  }
+
+  @Override
+  public void clear() {
+    heap.clear();
+    try {
+      log.logClear();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Makes everything logged so far durable.
+   */
+  public void commit() throws IOException {
+    log.commit();
+  }
+
+  /**
+   * Saves the heap as the new snapshot through the writer and truncates the log.
+   */
+  public void checkpoint(WriteAheadLog.SnapshotWriter writer) throws IOException {
+    log.checkpoint(writer);
+  }
+
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+}
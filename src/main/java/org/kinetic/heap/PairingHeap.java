@@ -0,0 +1,194 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * Pairing heap with O(1) insert and meld and cheap decrease key. Every inserted value lives in a
+ * {@link Node} that serves as its handle for {@link #decrease} and {@link #remove(Node)}.
+ */
+public class PairingHeap<T extends Comparable<T>> implements IHeap<T> {
+
+  private static final int INITIAL_PAIRING_CAPACITY = 16;
+
+  private Node<T> root;
+
+  private int size;
+
+  private int epoch;
+
+  private Node<T>[] pairingBuffer = newBuffer(INITIAL_PAIRING_CAPACITY);
+
+  public static class Node<T> {
+
+    @Getter
+    private T value;
+
+    private Node<T> child;
+
+    private Node<T> next;
+
+    // the parent for a first child, otherwise the previous sibling
+    private Node<T> prev;
+
+    private PairingHeap<?> owner;
+
+    private int epoch;
+
+    private Node(T value) {
+      this.value = value;
+    }
+  }
+
+  @Override
+  public void insert(T data) {
+    insertWithHandle(data);
+  }
+
+  public Node<T> insertWithHandle(T data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    Node<T> node = new Node<>(data);
+    node.owner = this;
+    node.epoch = epoch;
+    root = root == null ? node : meld(root, node);
+    size++;
+    return node;
+  }
+
+  @Override
+  public T extractMin() {
+    if (root == null) {
+      return null;
+    }
+    Node<T> minNode = root;
+    root = combineSiblings(minNode.child);
+    minNode.child = null;
+    minNode.owner = null;
+    size--;
+    return minNode.value;
+  }
+
+  @Override
+  public T getMin() {
+    return root == null ? null : root.value;
+  }
+
+  public void decrease(Node<T> node, T newValue) {
+    if (!contains(node) || newValue == null || newValue.compareTo(node.value) > 0) {
+      throw new IllegalArgumentException("Invalid decrease");
+    }
+    node.value = newValue;
+    if (node != root) {
+      cut(node);
+      root = meld(root, node);
+    }
+  }
+
+  public boolean remove(Node<T> node) {
+    if (!contains(node)) {
+      return false;
+    }
+    if (node == root) {
+      extractMin();
+      return true;
+    }
+
+    cut(node);
+    Node<T> subtree = combineSiblings(node.child);
+    node.child = null;
+    if (subtree != null) {
+      root = meld(root, subtree);
+    }
+    node.owner = null;
+    size--;
+    return true;
+  }
+
+  public boolean contains(Node<T> node) {
+    return node != null && node.owner == this && node.epoch == epoch;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    root = null;
+    size = 0;
+    epoch++;
+  }
+
+  private Node<T> meld(Node<T> first, Node<T> second) {
+    if (second.value.compareTo(first.value) < 0) {
+      Node<T> tmp = first;
+      first = second;
+      second = tmp;
+    }
+
+    second.prev = first;
+    second.next = first.child;
+    if (first.child != null) {
+      first.child.prev = second;
+    }
+    first.child = second;
+    return first;
+  }
+
+  private void cut(Node<T> node) {
+    if (node.prev.child == node) {
+      node.prev.child = node.next;
+    } else {
+      node.prev.next = node.next;
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.next = null;
+    node.prev = null;
+  }
+
+  // standard two pass pairing: meld neighbours left to right, then fold the pairs right to left
+  private Node<T> combineSiblings(Node<T> first) {
+    if (first == null) {
+      return null;
+    }
+
+    int count = 0;
+    Node<T> node = first;
+    while (node != null) {
+      if (count == pairingBuffer.length) {
+        pairingBuffer = Arrays.copyOf(pairingBuffer, count << 1);
+      }
+      Node<T> next = node.next;
+      node.next = null;
+      node.prev = null;
+      pairingBuffer[count++] = node;
+      node = next;
+    }
+
+    int pairs = 0;
+    for (int i = 0; i + 1 < count; i += 2) {
+      pairingBuffer[pairs++] = meld(pairingBuffer[i], pairingBuffer[i + 1]);
+    }
+    if ((count & 1) == 1) {
+      pairingBuffer[pairs++] = pairingBuffer[count - 1];
+    }
+
+    Node<T> result = pairingBuffer[pairs - 1];
+    for (int i = pairs - 2; i >= 0; i--) {
+      result = meld(pairingBuffer[i], result);
+    }
+    Arrays.fill(pairingBuffer, 0, count, null);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Node<T>[] newBuffer(int capacity) {
+    return (Node<T>[]) new Node<?>[capacity];
+  }
+
+}
@@ -0,0 +1,227 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+import lombok.Getter;
+
+/**
+ * Radix heap over long keys for monotone workloads: a key may never be smaller than the last
+ * minimum, extracted or only peeked with {@link #getMin()}, since finding it already splits the
+ * buckets around it. Values are bucketed by the highest bit in which their key differs from that
+ * minimum, so a bucket is only scanned when it is split, which every value goes through at most
+ * 64 times. Every inserted value lives in a {@link Node} that serves as its handle.
+ */
+public class RadixHeap<T extends Comparable<T>> implements IHeap<T> {
+
+  private static final int BUCKETS_NUM = Long.SIZE + 1;
+
+  private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+  private final ToLongFunction<? super T> keyFunction;
+
+  private final Node<T>[][] buckets;
+
+  private final int[] bucketSizes = new int[BUCKETS_NUM];
+
+  private long lastMin = Long.MIN_VALUE;
+
+  private int size;
+
+  private int epoch;
+
+  public static class Node<T> {
+
+    @Getter
+    private T value;
+
+    @Getter
+    private long key;
+
+    private int bucket;
+
+    private int position;
+
+    private RadixHeap<?> owner;
+
+    private int epoch;
+
+    private Node(T value, long key) {
+      this.value = value;
+      this.key = key;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public RadixHeap(ToLongFunction<? super T> keyFunction) {
+    this.keyFunction = keyFunction;
+    buckets = (Node<T>[][]) new Node<?>[BUCKETS_NUM][];
+  }
+
+  // order preserving mapping of a double to a long key, NaN excluded
+  public static long orderedBits(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits >= 0 ? bits : bits ^ Long.MAX_VALUE;
+  }
+
+  @Override
+  public void insert(T data) {
+    insertWithHandle(data);
+  }
+
+  public Node<T> insertWithHandle(T data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    long key = keyFunction.applyAsLong(data);
+    if (key < lastMin) {
+      throw new IllegalArgumentException("Key is below the last extracted or peeked minimum");
+    }
+
+    Node<T> node = new Node<>(data, key);
+    node.owner = this;
+    node.epoch = epoch;
+    place(node);
+    size++;
+    return node;
+  }
+
+  @Override
+  public T extractMin() {
+    if (size == 0) {
+      return null;
+    }
+    fillFirstBucket();
+    Node<T> minNode = buckets[0][bucketSizes[0] - 1];
+    removeFromBucket(minNode);
+    minNode.owner = null;
+    size--;
+    return minNode.value;
+  }
+
+  @Override
+  public T getMin() {
+    if (size == 0) {
+      return null;
+    }
+    fillFirstBucket();
+    return buckets[0][bucketSizes[0] - 1].value;
+  }
+
+  public void decrease(Node<T> node, T newValue) {
+    if (!contains(node) || newValue == null) {
+      throw new IllegalArgumentException("Invalid decrease");
+    }
+    long key = keyFunction.applyAsLong(newValue);
+    if (key > node.key || key < lastMin) {
+      throw new IllegalArgumentException("Invalid decrease");
+    }
+
+    removeFromBucket(node);
+    node.value = newValue;
+    node.key = key;
+    place(node);
+  }
+
+  public boolean remove(Node<T> node) {
+    if (!contains(node)) {
+      return false;
+    }
+    removeFromBucket(node);
+    node.owner = null;
+    size--;
+    return true;
+  }
+
+  public boolean contains(Node<T> node) {
+    return node != null && node.owner == this && node.epoch == epoch;
+  }
+
+  /**
+   * @return key of the last extracted or peeked minimum, no key below it is accepted
+   */
+  public long getLastMin() {
+    return lastMin;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < BUCKETS_NUM; i++) {
+      if (buckets[i] != null) {
+        Arrays.fill(buckets[i], 0, bucketSizes[i], null);
+      }
+      bucketSizes[i] = 0;
+    }
+    lastMin = Long.MIN_VALUE;
+    size = 0;
+    epoch++;
+  }
+
+  // the first bucket only holds keys equal to the last minimum, refill it by splitting the first
+  // non empty bucket around its smallest key
+  private void fillFirstBucket() {
+    if (bucketSizes[0] > 0) {
+      return;
+    }
+
+    int bucketIdx = 1;
+    while (bucketSizes[bucketIdx] == 0) {
+      bucketIdx++;
+    }
+
+    Node<T>[] bucket = buckets[bucketIdx];
+    int bucketSize = bucketSizes[bucketIdx];
+    long minKey = bucket[0].key;
+    for (int i = 1; i < bucketSize; i++) {
+      minKey = Math.min(minKey, bucket[i].key);
+    }
+
+    lastMin = minKey;
+    bucketSizes[bucketIdx] = 0;
+    for (int i = 0; i < bucketSize; i++) {
+      Node<T> node = bucket[i];
+      bucket[i] = null;
+      place(node);
+    }
+  }
+
+  private void place(Node<T> node) {
+    int bucketIdx = node.key == lastMin
+        ? 0 : Long.SIZE - Long.numberOfLeadingZeros(node.key ^ lastMin);
+    Node<T>[] bucket = buckets[bucketIdx];
+    int bucketSize = bucketSizes[bucketIdx];
+    if (bucket == null) {
+      bucket = newBucket(INITIAL_BUCKET_CAPACITY);
+      buckets[bucketIdx] = bucket;
+    } else if (bucketSize == bucket.length) {
+      bucket = Arrays.copyOf(bucket, bucketSize << 1);
+      buckets[bucketIdx] = bucket;
+    }
+
+    bucket[bucketSize] = node;
+    node.bucket = bucketIdx;
+    node.position = bucketSize;
+    bucketSizes[bucketIdx] = bucketSize + 1;
+  }
+
+  private void removeFromBucket(Node<T> node) {
+    Node<T>[] bucket = buckets[node.bucket];
+    int last = --bucketSizes[node.bucket];
+    if (node.position != last) {
+      Node<T> moved = bucket[last];
+      bucket[node.position] = moved;
+      moved.position = node.position;
+    }
+    bucket[last] = null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Node<T>[] newBucket(int capacity) {
+    return (Node<T>[]) new Node<?>[capacity];
+  }
+
+}
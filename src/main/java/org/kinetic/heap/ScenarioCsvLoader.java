@@ -0,0 +1,410 @@
+package org.kinetic.heap;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Streaming reader of the scenario format, a header line followed by {@code id,rate,initialPriority}
+ * rows. The file is memory mapped in windows, so its size is not limited by the heap or by the 2 GB
+ * of a single mapping, and the fields are parsed straight from the mapped bytes. Parsed rows are
+ * collected into fixed arrays and handed over chunk by chunk to a bulk insert. Doubles are parsed
+ * with the Eisel-Lemire algorithm, the rare inputs it cannot round with certainty, over 19
+ * significant digits or special values go through {@link Double#parseDouble}.
+ */
+public class ScenarioCsvLoader {
+
+  public interface ChunkSink {
+
+    void accept(int[] ids, double[] initialPriorities, double[] rates, int length);
+  }
+
+  @RequiredArgsConstructor
+  @Getter
+  public static class Result {
+
+    private final long rows;
+    private final long elapsedNanos;
+
+    public double getRowsPerSecond() {
+      return elapsedNanos == 0 ? 0.0 : rows * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      return rows + " rows in " + elapsedNanos / 1_000_000 + " ms, "
+          + (long) getRowsPerSecond() + " rows/s";
+    }
+  }
+
+  public static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+  private static final long DEFAULT_WINDOW_BYTES = 1L << 28;
+
+  private static final int MAX_SIGNIFICANT_DIGITS = 19;
+
+  // truncated 128 bit mantissas of the powers of ten, high and low words
+  private static final int MIN_POW10 = -348;
+  private static final int MAX_POW10 = 347;
+  private static final long[] POW10_HIGH = new long[MAX_POW10 - MIN_POW10 + 1];
+  private static final long[] POW10_LOW = new long[MAX_POW10 - MIN_POW10 + 1];
+
+  static {
+    BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    for (int exp10 = MIN_POW10; exp10 <= MAX_POW10; exp10++) {
+      BigInteger mantissa;
+      if (exp10 >= 0) {
+        BigInteger pow = BigInteger.TEN.pow(exp10);
+        int shift = pow.bitLength() - 128;
+        mantissa = shift > 0 ? pow.shiftRight(shift) : pow.shiftLeft(-shift);
+      } else {
+        BigInteger pow = BigInteger.TEN.pow(-exp10);
+        mantissa = BigInteger.ONE.shiftLeft(127 + pow.bitLength()).divide(pow);
+      }
+      POW10_HIGH[exp10 - MIN_POW10] = mantissa.shiftRight(64).longValue();
+      POW10_LOW[exp10 - MIN_POW10] = mantissa.and(mask).longValue();
+    }
+  }
+
+  private final int chunkRows;
+
+  private final long windowBytes;
+
+  private final int[] ids;
+
+  private final double[] initialPriorities;
+
+  private final double[] rates;
+
+  private MappedByteBuffer window;
+
+  private long line;
+
+  public ScenarioCsvLoader() {
+    this(DEFAULT_CHUNK_ROWS);
+  }
+
+  public ScenarioCsvLoader(int chunkRows) {
+    this(chunkRows, DEFAULT_WINDOW_BYTES);
+  }
+
+  /*package*/ ScenarioCsvLoader(int chunkRows, long windowBytes) {
+    if (chunkRows < 1) {
+      throw new IllegalArgumentException("Invalid chunk size");
+    }
+    if (windowBytes < 1 || windowBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid window size");
+    }
+    this.chunkRows = chunkRows;
+    this.windowBytes = windowBytes;
+    ids = new int[chunkRows];
+    initialPriorities = new double[chunkRows];
+    rates = new double[chunkRows];
+  }
+
+  public Result load(Path path, KineticHeapPrimitive heap) throws IOException {
+    return load(path, heap::insertAll);
+  }
+
+  /**
+   * Reads the whole file and passes the rows to the sink in chunks of at most the chunk size, the
+   * arrays are reused for the next chunk once the sink returns. Blank lines are skipped.
+   *
+   * @throws IOException on a malformed row, with its line number
+   */
+  public Result load(Path path, ChunkSink sink) throws IOException {
+    long start = System.nanoTime();
+    long rows = 0;
+    try (FileChannel channel = FileChannel.open(path, READ)) {
+      long fileSize = channel.size();
+      long windowStart = 0;
+      int count = 0;
+      boolean header = true;
+      line = 0;
+
+      while (windowStart < fileSize) {
+        int length = (int) Math.min(windowBytes, fileSize - windowStart);
+        boolean last = windowStart + length == fileSize;
+        window = channel.map(MapMode.READ_ONLY, windowStart, length);
+
+        int pos = 0;
+        while (pos < length) {
+          int end = findLineEnd(pos, length);
+          if (end == length && !last) {
+            if (pos == 0) {
+              throw new IOException("Line " + (line + 1) + " is longer than the mapped window");
+            }
+            // the row continues in the next window
+            break;
+          }
+          line++;
+
+          if (header) {
+            header = false;
+          } else if (!isBlank(pos, end)) {
+            parseRow(pos, end, count);
+            if (++count == chunkRows) {
+              sink.accept(ids, initialPriorities, rates, count);
+              rows += count;
+              count = 0;
+            }
+          }
+          pos = end + 1;
+        }
+        windowStart += Math.min(pos, length);
+      }
+
+      if (count > 0) {
+        sink.accept(ids, initialPriorities, rates, count);
+        rows += count;
+      }
+    } finally {
+      window = null;
+    }
+    return new Result(rows, System.nanoTime() - start);
+  }
+
+  private int findLineEnd(int pos, int length) {
+    while (pos < length && window.get(pos) != '\n') {
+      pos++;
+    }
+    return pos;
+  }
+
+  private boolean isBlank(int pos, int end) {
+    for (int i = pos; i < end; i++) {
+      byte b = window.get(i);
+      if (b != ' ' && b != '\t' && b != '\r') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void parseRow(int pos, int end, int row) throws IOException {
+    int idEnd = findComma(pos, end);
+    int rateEnd = findComma(idEnd + 1, end);
+    if (rateEnd == end) {
+      throw new IOException("Expected 3 fields at line " + line);
+    }
+    int priorityEnd = findComma(rateEnd + 1, end);
+    if (priorityEnd != end) {
+      throw new IOException("Expected 3 fields at line " + line);
+    }
+
+    ids[row] = parseInt(pos, idEnd);
+    rates[row] = parseDouble(idEnd + 1, rateEnd);
+    initialPriorities[row] = parseDouble(rateEnd + 1, end);
+  }
+
+  private int findComma(int pos, int end) {
+    while (pos < end && window.get(pos) != ',') {
+      pos++;
+    }
+    return pos;
+  }
+
+  private int parseInt(int from, int to) throws IOException {
+    int pos = skipSpaces(from, to);
+    to = trimSpaces(pos, to);
+
+    boolean negative = false;
+    if (pos < to && (window.get(pos) == '-' || window.get(pos) == '+')) {
+      negative = window.get(pos++) == '-';
+    }
+    if (pos == to) {
+      throw invalidField(from, to);
+    }
+
+    long value = 0;
+    for (; pos < to; pos++) {
+      int digit = window.get(pos) - '0';
+      if (digit < 0 || digit > 9) {
+        throw invalidField(from, to);
+      }
+      value = value * 10 + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        throw invalidField(from, to);
+      }
+    }
+    value = negative ? -value : value;
+    if (value > Integer.MAX_VALUE) {
+      throw invalidField(from, to);
+    }
+    return (int) value;
+  }
+
+  private double parseDouble(int from, int to) throws IOException {
+    int pos = skipSpaces(from, to);
+    to = trimSpaces(pos, to);
+
+    boolean negative = false;
+    if (pos < to && (window.get(pos) == '-' || window.get(pos) == '+')) {
+      negative = window.get(pos++) == '-';
+    }
+
+    long mantissa = 0;
+    int significantDigits = 0;
+    int exp10 = 0;
+    boolean anyDigit = false;
+    boolean fraction = false;
+    for (; pos < to; pos++) {
+      byte b = window.get(pos);
+      if (b == '.' && !fraction) {
+        fraction = true;
+        continue;
+      }
+      int digit = b - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      anyDigit = true;
+      if (significantDigits == 0 && digit == 0) {
+        // leading zeros only move the point
+        exp10 -= fraction ? 1 : 0;
+        continue;
+      }
+      if (significantDigits == MAX_SIGNIFICANT_DIGITS) {
+        return parseFallback(from, to);
+      }
+      mantissa = mantissa * 10 + digit;
+      significantDigits++;
+      exp10 -= fraction ? 1 : 0;
+    }
+    if (!anyDigit) {
+      return parseFallback(from, to);
+    }
+
+    if (pos < to && (window.get(pos) == 'e' || window.get(pos) == 'E')) {
+      pos++;
+      boolean negativeExp = false;
+      if (pos < to && (window.get(pos) == '-' || window.get(pos) == '+')) {
+        negativeExp = window.get(pos++) == '-';
+      }
+      if (pos == to) {
+        throw invalidField(from, to);
+      }
+      int exponent = 0;
+      for (; pos < to; pos++) {
+        int digit = window.get(pos) - '0';
+        if (digit < 0 || digit > 9) {
+          throw invalidField(from, to);
+        }
+        exponent = Math.min(exponent * 10 + digit, 100_000);
+      }
+      exp10 += negativeExp ? -exponent : exponent;
+    }
+    if (pos != to) {
+      return parseFallback(from, to);
+    }
+
+    if (mantissa == 0) {
+      return negative ? -0.0 : 0.0;
+    }
+    long bits = eiselLemire(mantissa, exp10);
+    if (bits == -1) {
+      return parseFallback(from, to);
+    }
+    return Double.longBitsToDouble(negative ? bits | Long.MIN_VALUE : bits);
+  }
+
+  /**
+   * Correctly rounded bits of mantissa * 10^exp10 for a non zero mantissa, or -1 when the 128 bit
+   * approximation cannot decide the rounding or the result is subnormal or infinite.
+   */
+  /*package*/ static long eiselLemire(long mantissa, int exp10) {
+    if (exp10 < MIN_POW10 || exp10 > MAX_POW10) {
+      return -1;
+    }
+    int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+    mantissa <<= leadingZeros;
+    long exp2 = ((217706L * exp10) >> 16) + 64 + 1023 - leadingZeros;
+
+    int powIdx = exp10 - MIN_POW10;
+    long high = unsignedMultiplyHigh(mantissa, POW10_HIGH[powIdx]);
+    long low = mantissa * POW10_HIGH[powIdx];
+
+    // the truncated power may hide a carry into the kept bits, look at the lower word
+    if ((high & 0x1FF) == 0x1FF && Long.compareUnsigned(low + mantissa, mantissa) < 0) {
+      long nextHigh = unsignedMultiplyHigh(mantissa, POW10_LOW[powIdx]);
+      long nextLow = mantissa * POW10_LOW[powIdx];
+      long mergedHigh = high;
+      long mergedLow = low + nextHigh;
+      if (Long.compareUnsigned(mergedLow, low) < 0) {
+        mergedHigh++;
+      }
+      if ((mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1
+          && Long.compareUnsigned(nextLow + mantissa, mantissa) < 0) {
+        return -1;
+      }
+      high = mergedHigh;
+      low = mergedLow;
+    }
+
+    long msb = high >>> 63;
+    long bits = high >>> (msb + 9);
+    exp2 -= 1 ^ msb;
+
+    // exactly half way between two doubles as far as the approximation can tell
+    if (low == 0 && (high & 0x1FF) == 0 && (bits & 3) == 1) {
+      return -1;
+    }
+
+    bits += bits & 1;
+    bits >>>= 1;
+    if (bits >>> 53 > 0) {
+      bits >>>= 1;
+      exp2++;
+    }
+    if (exp2 <= 0 || exp2 >= 0x7FF) {
+      return -1;
+    }
+    return exp2 << 52 | bits & 0x000F_FFFF_FFFF_FFFFL;
+  }
+
+  private static long unsignedMultiplyHigh(long x, long y) {
+    return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+  }
+
+  private double parseFallback(int from, int to) throws IOException {
+    try {
+      return Double.parseDouble(fieldString(from, to));
+    } catch (NumberFormatException e) {
+      throw invalidField(from, to);
+    }
+  }
+
+  private IOException invalidField(int from, int to) {
+    return new IOException("Invalid number '" + fieldString(from, to).trim() + "' at line " + line);
+  }
+
+  private String fieldString(int from, int to) {
+    byte[] bytes = new byte[to - from];
+    window.get(from, bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  private int skipSpaces(int pos, int to) {
+    while (pos < to && (window.get(pos) == ' ' || window.get(pos) == '\t')) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private int trimSpaces(int pos, int to) {
+    while (to > pos && (window.get(to - 1) == ' ' || window.get(to - 1) == '\t'
+        || window.get(to - 1) == '\r')) {
+      to--;
+    }
+    return to;
+  }
+
+}
@@ -0,0 +1,268 @@
+package org.kinetic.heap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Kinetic heap partitioned by id over independent shards. Certificate failures in different
+ * shards never interact, so advancing time runs the shards in parallel on a fork-join pool, the
+ * global minimum is the winner of a small kinetic tournament over the shard minima. Every match of
+ * the tournament holds a certificate for the crossing of its two shard minima, so the next event
+ * is the earliest of the shard and the tournament certificates and every change of the global
+ * minimum is reported as an event. The heap itself is not thread safe, only the work inside one
+ * call is spread over the pool.
+ */
+public class ShardedKineticHeap implements IKineticHeap {
+
+  private final KineticHeap[] shards;
+
+  private final ForkJoinPool pool;
+
+  // tournament over the shard minima, leaves at leafCount + shard, root at 1, -1 if empty
+  private final int[] winners;
+
+  private final int leafCount;
+
+  // crossing of the two shard minima of a match, keyed by the match node
+  private final ICertificateQueue certificates;
+
+  private int size;
+
+  private double curTime;
+
+  public ShardedKineticHeap(int shardCount) {
+    this(shardCount, KineticHeap::new, ForkJoinPool.commonPool());
+  }
+
+  public ShardedKineticHeap(int shardCount, Supplier<KineticHeap> shardFactory,
+      ForkJoinPool pool) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Invalid shard count");
+    }
+    if (shardFactory == null || pool == null) {
+      throw new IllegalArgumentException("Invalid shard factory or pool");
+    }
+
+    this.pool = pool;
+    shards = new KineticHeap[shardCount];
+    for (int shard = 0; shard < shardCount; shard++) {
+      shards[shard] = shardFactory.get();
+    }
+
+    leafCount = Integer.highestOneBit(Math.max(shardCount - 1, 1)) << 1;
+    winners = new int[leafCount << 1];
+    Arrays.fill(winners, -1);
+    certificates = new CertificateQueue(leafCount);
+  }
+
+  @Override
+  public void insert(KineticElement data) {
+    if (data == null) {
+      throw new IllegalArgumentException("Invalid data");
+    }
+    int shard = getShardIdx(data.getId());
+    shards[shard].insert(data);
+    size++;
+    replayPath(shard);
+  }
+
+  /**
+   * Partitions the batch by id and bulk loads every shard in parallel.
+   */
+  public void insertAll(Collection<? extends KineticElement> elements) {
+    List<List<KineticElement>> batches = new ArrayList<>(shards.length);
+    for (int shard = 0; shard < shards.length; shard++) {
+      batches.add(new ArrayList<>(elements.size() / shards.length + 1));
+    }
+    for (KineticElement element : elements) {
+      if (element == null) {
+        throw new IllegalArgumentException("Invalid data");
+      }
+      batches.get(getShardIdx(element.getId())).add(element);
+    }
+
+    forEachShard(shard -> shards[shard].insertAll(batches.get(shard)));
+    size += elements.size();
+    rebuildTournament();
+  }
+
+  @Override
+  public KineticElement extractMin() {
+    int shard = winners[1];
+    if (shard == -1) {
+      return null;
+    }
+    KineticElement minElement = shards[shard].extractMin();
+    size--;
+    replayPath(shard);
+    return minElement;
+  }
+
+  @Override
+  public KineticElement getMin() {
+    int shard = winners[1];
+    return shard == -1 ? null : shards[shard].getMin();
+  }
+
+  @Override
+  public void fastForward(int nextTime) {
+    advanceTo(nextTime);
+  }
+
+  @Override
+  public void advanceTo(double nextTime) {
+    if (!(nextTime > curTime)) {
+      return;
+    }
+
+    forEachShard(shard -> shards[shard].advanceTo(nextTime));
+    curTime = nextTime;
+    rebuildTournament();
+  }
+
+  @Override
+  public double advanceToNextEvent() {
+    double eventTime = getNextEventTime();
+    if (eventTime == Double.POSITIVE_INFINITY) {
+      return eventTime;
+    }
+
+    // a single event rarely spans shards, no point in forking for it
+    for (KineticHeap shard : shards) {
+      shard.advanceTo(eventTime);
+    }
+    curTime = eventTime;
+    rebuildTournament();
+    return eventTime;
+  }
+
+  /**
+   * @return time of the next failure of a shard or a tournament certificate, positive infinity if
+   * there is none
+   */
+  public double getNextEventTime() {
+    double eventTime = certificates.isEmpty() ? Double.POSITIVE_INFINITY
+        : certificates.getMinExpirationTime();
+    for (KineticHeap shard : shards) {
+      eventTime = Math.min(eventTime, shard.getNextEventTime());
+    }
+    return eventTime;
+  }
+
+  @Override
+  public int getCurTime() {
+    return (int) curTime;
+  }
+
+  @Override
+  public double getTime() {
+    return curTime;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void clear() {
+    for (KineticHeap shard : shards) {
+      shard.clear();
+    }
+    size = 0;
+    Arrays.fill(winners, -1);
+    certificates.clear();
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  public int getShardIdx(int id) {
+    return Math.floorMod(id, shards.length);
+  }
+
+  /*package*/ KineticHeap getShard(int shard) {
+    return shards[shard];
+  }
+
+  private void forEachShard(IntConsumer action) {
+    if (shards.length == 1) {
+      action.accept(0);
+      return;
+    }
+    pool.invoke(new ShardAction(action, 0, shards.length));
+  }
+
+  private void rebuildTournament() {
+    for (int shard = 0; shard < shards.length; shard++) {
+      winners[leafCount + shard] = shards[shard].size() > 0 ? shard : -1;
+    }
+    for (int node = leafCount - 1; node >= 1; node--) {
+      replayMatch(node);
+    }
+  }
+
+  private void replayPath(int shard) {
+    winners[leafCount + shard] = shards[shard].size() > 0 ? shard : -1;
+    for (int node = (leafCount + shard) >> 1; node >= 1; node >>= 1) {
+      replayMatch(node);
+    }
+  }
+
+  // decides the match by the order just after the current time and certifies it until the loser
+  // overtakes the winner
+  private void replayMatch(int node) {
+    certificates.remove(node);
+    int left = winners[node << 1];
+    int right = winners[(node << 1) + 1];
+    if (left == -1 || right == -1) {
+      winners[node] = left == -1 ? right : left;
+      return;
+    }
+
+    KineticElement leftMin = shards[left].getMin();
+    KineticElement rightMin = shards[right].getMin();
+    boolean rightWins = rightMin.isBeforeAfter(leftMin, curTime);
+    winners[node] = rightWins ? right : left;
+
+    double intersection = leftMin.getIntersectionTime(rightMin);
+    if (intersection > curTime) {
+      certificates.add(node, intersection);
+    }
+  }
+
+  private static class ShardAction extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IntConsumer action;
+
+    private final int from;
+
+    private final int to;
+
+    private ShardAction(IntConsumer action, int from, int to) {
+      this.action = action;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        action.accept(from);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ShardAction(action, from, mid), new ShardAction(action, mid, to));
+    }
+  }
+
+}
@@ -0,0 +1,303 @@
+package org.kinetic.heap;
+
+import java.util.Arrays;
+
+/**
+ * Two level timer wheel for certificates. Expiration times are hashed into buckets of a fixed
+ * width, buckets within one wheel revolution from the current bucket live in the wheel and the rest
+ * in an overflow list that is redistributed once per revolution. Insert and remove into a bucket
+ * are O(1), only the bucket being drained is kept in a small binary heap so that certificates
+ * still come out in expiration order.
+ */
+public class TimerWheelCertificateQueue implements ICertificateQueue {
+
+  public static final double DEFAULT_BUCKET_WIDTH = 1.0;
+
+  public static final int DEFAULT_WHEEL_SIZE = 256;
+
+  private static final int INITIAL_BUCKET_CAPACITY = 4;
+
+  private static final long MAX_BUCKET = 1L << 62;
+
+  private static final byte NONE = 0;
+  private static final byte NEAR = 1;
+  private static final byte WHEEL = 2;
+  private static final byte OVERFLOW = 3;
+
+  private final double bucketWidth;
+
+  private final int wheelSize;
+
+  private final int wheelMask;
+
+  private final CertificateQueue near;
+
+  private final int[][] buckets;
+
+  private final int[] bucketSizes;
+
+  private int[] overflow = new int[INITIAL_BUCKET_CAPACITY];
+
+  private int overflowSize;
+
+  private long overflowMinBucket = Long.MAX_VALUE;
+
+  private byte[] locations = new byte[INITIAL_BUCKET_CAPACITY];
+
+  private int[] bucketPositions = new int[INITIAL_BUCKET_CAPACITY];
+
+  private double[] times = new double[INITIAL_BUCKET_CAPACITY];
+
+  private long currentBucket = -1;
+
+  private int wheelCount;
+
+  private int size;
+
+  public TimerWheelCertificateQueue() {
+    this(DEFAULT_BUCKET_WIDTH, DEFAULT_WHEEL_SIZE);
+  }
+
+  public TimerWheelCertificateQueue(double bucketWidth, int wheelSize) {
+    if (!(bucketWidth > 0.0) || Double.isInfinite(bucketWidth)) {
+      throw new IllegalArgumentException("Invalid bucket width");
+    }
+    if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("Wheel size must be a power of two");
+    }
+    this.bucketWidth = bucketWidth;
+    this.wheelSize = wheelSize;
+    this.wheelMask = wheelSize - 1;
+
+    near = new CertificateQueue();
+    buckets = new int[wheelSize][];
+    bucketSizes = new int[wheelSize];
+  }
+
+  private TimerWheelCertificateQueue(TimerWheelCertificateQueue other) {
+    bucketWidth = other.bucketWidth;
+    wheelSize = other.wheelSize;
+    wheelMask = other.wheelMask;
+    near = other.near.copy();
+    buckets = new int[wheelSize][];
+    for (int i = 0; i < wheelSize; i++) {
+      if (other.buckets[i] != null) {
+        buckets[i] = other.buckets[i].clone();
+      }
+    }
+    bucketSizes = other.bucketSizes.clone();
+    overflow = other.overflow.clone();
+    overflowSize = other.overflowSize;
+    overflowMinBucket = other.overflowMinBucket;
+    locations = other.locations.clone();
+    bucketPositions = other.bucketPositions.clone();
+    times = other.times.clone();
+    currentBucket = other.currentBucket;
+    wheelCount = other.wheelCount;
+    size = other.size;
+  }
+
+  @Override
+  public void add(int elementIdx, double expirationTime) {
+    ensureElementCapacity(elementIdx);
+    if (locations[elementIdx] != NONE) {
+      throw new IllegalArgumentException("Certificate already exists for element " + elementIdx);
+    }
+
+    times[elementIdx] = expirationTime;
+    place(elementIdx, getBucket(expirationTime));
+    size++;
+  }
+
+  @Override
+  public void addAll(int[] elementIdxs, double[] expirationTimes, int length) {
+    for (int i = 0; i < length; i++) {
+      add(elementIdxs[i], expirationTimes[i]);
+    }
+  }
+
+  @Override
+  public boolean remove(int elementIdx) {
+    if (!contains(elementIdx)) {
+      return false;
+    }
+
+    switch (locations[elementIdx]) {
+      case NEAR -> near.remove(elementIdx);
+      case WHEEL -> {
+        int bucketIdx = (int) (getBucket(times[elementIdx]) & wheelMask);
+        bucketSizes[bucketIdx] = removeFromList(buckets[bucketIdx], bucketSizes[bucketIdx],
+            bucketPositions[elementIdx]);
+        wheelCount--;
+      }
+      default -> overflowSize = removeFromList(overflow, overflowSize,
+          bucketPositions[elementIdx]);
+    }
+
+    locations[elementIdx] = NONE;
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean contains(int elementIdx) {
+    return elementIdx >= 0 && elementIdx < locations.length && locations[elementIdx] != NONE;
+  }
+
+  @Override
+  public double getExpirationTime(int elementIdx) {
+    return contains(elementIdx) ? times[elementIdx] : Double.NaN;
+  }
+
+  @Override
+  public int getMinElementIdx() {
+    fillNear();
+    return near.getMinElementIdx();
+  }
+
+  @Override
+  public double getMinExpirationTime() {
+    fillNear();
+    return near.getMinExpirationTime();
+  }
+
+  @Override
+  public int extractMin() {
+    int elementIdx = getMinElementIdx();
+    if (elementIdx != -1) {
+      remove(elementIdx);
+    }
+    return elementIdx;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public TimerWheelCertificateQueue copy() {
+    return new TimerWheelCertificateQueue(this);
+  }
+
+  @Override
+  public void clear() {
+    near.clear();
+    Arrays.fill(bucketSizes, 0);
+    overflowSize = 0;
+    overflowMinBucket = Long.MAX_VALUE;
+    Arrays.fill(locations, NONE);
+    currentBucket = -1;
+    wheelCount = 0;
+    size = 0;
+  }
+
+  public long getCurrentBucket() {
+    return currentBucket;
+  }
+
+  private void fillNear() {
+    while (near.isEmpty() && size > 0) {
+      if (wheelCount == 0) {
+        // nothing within the revolution, jump straight to the earliest overflow bucket
+        currentBucket = overflowMinBucket - 1;
+        redistributeOverflow();
+        continue;
+      }
+
+      currentBucket++;
+      if ((currentBucket & wheelMask) == 0) {
+        redistributeOverflow();
+      }
+      drainBucket((int) (currentBucket & wheelMask));
+    }
+  }
+
+  private void drainBucket(int bucketIdx) {
+    int[] bucket = buckets[bucketIdx];
+    int bucketSize = bucketSizes[bucketIdx];
+    for (int i = 0; i < bucketSize; i++) {
+      int elementIdx = bucket[i];
+      locations[elementIdx] = NEAR;
+      near.add(elementIdx, times[elementIdx]);
+    }
+    wheelCount -= bucketSize;
+    bucketSizes[bucketIdx] = 0;
+  }
+
+  private void redistributeOverflow() {
+    int count = overflowSize;
+    overflowSize = 0;
+    overflowMinBucket = Long.MAX_VALUE;
+    for (int i = 0; i < count; i++) {
+      int elementIdx = overflow[i];
+      place(elementIdx, getBucket(times[elementIdx]));
+    }
+  }
+
+  private void place(int elementIdx, long bucket) {
+    if (bucket <= currentBucket) {
+      locations[elementIdx] = NEAR;
+      near.add(elementIdx, times[elementIdx]);
+    } else if (bucket - currentBucket < wheelSize) {
+      int bucketIdx = (int) (bucket & wheelMask);
+      int[] list = buckets[bucketIdx];
+      if (list == null) {
+        list = new int[INITIAL_BUCKET_CAPACITY];
+        buckets[bucketIdx] = list;
+      } else if (bucketSizes[bucketIdx] == list.length) {
+        list = Arrays.copyOf(list, list.length << 1);
+        buckets[bucketIdx] = list;
+      }
+      bucketPositions[elementIdx] = bucketSizes[bucketIdx];
+      list[bucketSizes[bucketIdx]++] = elementIdx;
+      locations[elementIdx] = WHEEL;
+      wheelCount++;
+    } else {
+      if (overflowSize == overflow.length) {
+        overflow = Arrays.copyOf(overflow, overflowSize << 1);
+      }
+      bucketPositions[elementIdx] = overflowSize;
+      overflow[overflowSize++] = elementIdx;
+      locations[elementIdx] = OVERFLOW;
+      overflowMinBucket = Math.min(overflowMinBucket, bucket);
+    }
+  }
+
+  private int removeFromList(int[] list, int listSize, int position) {
+    int last = listSize - 1;
+    if (position != last) {
+      int moved = list[last];
+      list[position] = moved;
+      bucketPositions[moved] = position;
+    }
+    return last;
+  }
+
+  private long getBucket(double time) {
+    double bucket = Math.floor(time / bucketWidth);
+    if (bucket >= MAX_BUCKET) {
+      return MAX_BUCKET;
+    }
+    if (bucket <= -MAX_BUCKET) {
+      return -MAX_BUCKET;
+    }
+    return (long) bucket;
+  }
+
+  private void ensureElementCapacity(int elementIdx) {
+    if (elementIdx < locations.length) {
+      return;
+    }
+    int newLength = Math.max(elementIdx + 1, locations.length << 1);
+    locations = Arrays.copyOf(locations, newLength);
+    bucketPositions = Arrays.copyOf(bucketPositions, newLength);
+    times = Arrays.copyOf(times, newLength);
+  }
+
+}
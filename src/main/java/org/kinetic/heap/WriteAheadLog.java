@@ -0,0 +1,376 @@
+package org.kinetic.heap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Operation log of a kinetic heap kept next to its latest snapshot in one directory. Records are
+ * collected in a buffer and written as checksummed frames, a commit writes the pending frame and
+ * forces it to disk, so with a sync batch of n records one fsync covers n operations. A checkpoint
+ * writes a new snapshot and starts an empty log of the next generation, recovery loads the newest
+ * snapshot and replays the complete frames of its log, a torn frame at the tail is dropped.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+  public interface SnapshotWriter {
+
+    void write(Path path) throws IOException;
+  }
+
+  public interface SnapshotReader<H extends IKineticHeap> {
+
+    H read(Path path) throws IOException;
+  }
+
+  public static final int DEFAULT_SYNC_BATCH = 64;
+
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+  private static final String LOG_PREFIX = "wal-";
+
+  private static final String TMP_SUFFIX = ".tmp";
+
+  private static final int FRAME_BYTES = 1 << 16;
+
+  // payload length and checksum
+  private static final int FRAME_HEADER_BYTES = 8;
+
+  private static final int MAX_RECORD_BYTES = 1 + Integer.BYTES + 2 * Double.BYTES;
+
+  private static final byte INSERT = 0;
+  private static final byte EXTRACT_MIN = 1;
+  private static final byte ADVANCE = 2;
+  private static final byte NEXT_EVENT = 3;
+  private static final byte CHANGE = 4;
+  private static final byte REMOVE = 5;
+  private static final byte CLEAR = 6;
+
+  private final Path dir;
+
+  private final int syncBatch;
+
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(FRAME_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  private final CRC32C checksum = new CRC32C();
+
+  private FileChannel channel;
+
+  private long generation;
+
+  // length of the log found on open, recovery replays up to here
+  private long recoveredLength;
+
+  private int unsyncedRecords;
+
+  private boolean unforced;
+
+  private WriteAheadLog(Path dir, int syncBatch) {
+    this.dir = dir;
+    this.syncBatch = syncBatch;
+    buffer.position(FRAME_HEADER_BYTES);
+  }
+
+  /**
+   * Opens the log of the newest snapshot in the directory, creating both if absent. Files of older
+   * generations are deleted and a torn frame at the end of the log is cut off.
+   *
+   * @param syncBatch records per fsync, 0 to force only on {@link #commit()} and close
+   */
+  public static WriteAheadLog open(Path dir, int syncBatch) throws IOException {
+    if (syncBatch < 0) {
+      throw new IllegalArgumentException("Invalid sync batch");
+    }
+    Files.createDirectories(dir);
+
+    WriteAheadLog log = new WriteAheadLog(dir, syncBatch);
+    log.generation = findGeneration(dir);
+    log.deleteStaleFiles();
+
+    log.channel = FileChannel.open(log.logPath(log.generation), CREATE, READ, WRITE);
+    log.syncDir();
+    log.recoveredLength = log.replay(null);
+    log.channel.truncate(log.recoveredLength);
+    log.channel.position(log.recoveredLength);
+    return log;
+  }
+
+  /**
+   * Rebuilds the heap as of the last durable record: loads the snapshot of the current generation,
+   * or takes an empty heap if there is none yet, and replays the log onto it. Meant to run once
+   * right after {@link #open}, before anything new is logged.
+   */
+  public <H extends IKineticHeap> H recover(SnapshotReader<H> reader, Supplier<H> emptyHeap)
+      throws IOException {
+    Path snapshot = snapshotPath(generation);
+    H heap = Files.exists(snapshot) ? reader.read(snapshot) : emptyHeap.get();
+    replay(heap);
+    return heap;
+  }
+
+  /**
+   * Commits the log, lets the writer save the heap into a new snapshot and switches to an empty
+   * log. The snapshot only becomes visible by an atomic rename once it is fully written, so a crash
+   * at any point recovers either the old snapshot with its log or the new one.
+   */
+  public void checkpoint(SnapshotWriter writer) throws IOException {
+    commit();
+
+    long next = generation + 1;
+    Path tmp = dir.resolve(SNAPSHOT_PREFIX + next + TMP_SUFFIX);
+    writer.write(tmp);
+    try (FileChannel snapshot = FileChannel.open(tmp, WRITE)) {
+      snapshot.force(true);
+    }
+    Files.move(tmp, snapshotPath(next), ATOMIC_MOVE);
+    syncDir();
+
+    FileChannel nextChannel = FileChannel.open(logPath(next), CREATE, READ, WRITE,
+        TRUNCATE_EXISTING);
+    channel.close();
+    channel = nextChannel;
+    // the new snapshot and log must be on disk before the old generation goes away
+    syncDir();
+    Files.deleteIfExists(logPath(generation));
+    Files.deleteIfExists(snapshotPath(generation));
+    generation = next;
+  }
+
+  public void logInsert(int id, double initialPriority, double rate) throws IOException {
+    reserve();
+    buffer.put(INSERT).putInt(id).putDouble(initialPriority).putDouble(rate);
+    appended();
+  }
+
+  public void logExtractMin() throws IOException {
+    reserve();
+    buffer.put(EXTRACT_MIN);
+    appended();
+  }
+
+  public void logAdvance(double time) throws IOException {
+    reserve();
+    buffer.put(ADVANCE).putDouble(time);
+    appended();
+  }
+
+  public void logNextEvent() throws IOException {
+    reserve();
+    buffer.put(NEXT_EVENT);
+    appended();
+  }
+
+  public void logChange(int handle, double initialPriority, double rate) throws IOException {
+    reserve();
+    buffer.put(CHANGE).putInt(handle).putDouble(initialPriority).putDouble(rate);
+    appended();
+  }
+
+  public void logRemove(int handle) throws IOException {
+    reserve();
+    buffer.put(REMOVE).putInt(handle);
+    appended();
+  }
+
+  public void logClear() throws IOException {
+    reserve();
+    buffer.put(CLEAR);
+    appended();
+  }
+
+  /**
+   * Writes the pending records and forces them to disk, everything logged before is durable once
+   * this returns.
+   */
+  public void commit() throws IOException {
+    writeFrame();
+    if (unforced) {
+      channel.force(false);
+      unforced = false;
+    }
+    unsyncedRecords = 0;
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  public Path getDir() {
+    return dir;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      commit();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void reserve() throws IOException {
+    if (buffer.remaining() < MAX_RECORD_BYTES) {
+      writeFrame();
+    }
+  }
+
+  private void appended() throws IOException {
+    unsyncedRecords++;
+    if (syncBatch > 0 && unsyncedRecords >= syncBatch) {
+      commit();
+    }
+  }
+
+  private void writeFrame() throws IOException {
+    int end = buffer.position();
+    if (end == FRAME_HEADER_BYTES) {
+      return;
+    }
+
+    buffer.position(FRAME_HEADER_BYTES).limit(end);
+    checksum.reset();
+    checksum.update(buffer);
+    buffer.putInt(0, end - FRAME_HEADER_BYTES);
+    buffer.putInt(4, (int) checksum.getValue());
+
+    buffer.position(0).limit(end);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+    buffer.position(FRAME_HEADER_BYTES);
+    unforced = true;
+  }
+
+  // applies the complete frames to the heap, or only validates them without one
+  private long replay(IKineticHeap heap) throws IOException {
+    ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    long length = heap == null ? channel.size() : recoveredLength;
+    long offset = 0;
+    while (offset + FRAME_HEADER_BYTES <= length) {
+      frame.clear().limit(FRAME_HEADER_BYTES);
+      readFully(frame, offset);
+      int payloadBytes = frame.getInt(0);
+      int expectedChecksum = frame.getInt(4);
+      if (payloadBytes <= 0 || payloadBytes > FRAME_BYTES - FRAME_HEADER_BYTES
+          || offset + FRAME_HEADER_BYTES + payloadBytes > length) {
+        break;
+      }
+
+      frame.clear().limit(payloadBytes);
+      readFully(frame, offset + FRAME_HEADER_BYTES);
+      frame.flip();
+      checksum.reset();
+      checksum.update(frame);
+      if ((int) checksum.getValue() != expectedChecksum) {
+        break;
+      }
+
+      if (heap != null) {
+        frame.flip();
+        while (frame.hasRemaining()) {
+          apply(frame, heap);
+        }
+      }
+      offset += FRAME_HEADER_BYTES + payloadBytes;
+    }
+    return offset;
+  }
+
+  private void readFully(ByteBuffer frame, long offset) throws IOException {
+    while (frame.hasRemaining()) {
+      int read = channel.read(frame, offset);
+      if (read < 0) {
+        throw new IOException("Unexpected end of log");
+      }
+      offset += read;
+    }
+  }
+
+  private static void apply(ByteBuffer frame, IKineticHeap heap) throws IOException {
+    byte kind = frame.get();
+    switch (kind) {
+      case INSERT -> insert(heap, frame.getInt(), frame.getDouble(), frame.getDouble());
+      case EXTRACT_MIN -> heap.extractMin();
+      case ADVANCE -> heap.advanceTo(frame.getDouble());
+      case NEXT_EVENT -> heap.advanceToNextEvent();
+      case CHANGE -> asHandleHeap(heap).changeTrajectory(frame.getInt(), frame.getDouble(),
+          frame.getDouble());
+      case REMOVE -> asHandleHeap(heap).remove(frame.getInt());
+      case CLEAR -> heap.clear();
+      default -> throw new IOException("Unknown log record " + kind);
+    }
+  }
+
+  // the replayed element must follow the clock of the heap like the original one did
+  private static void insert(IKineticHeap heap, int id, double initialPriority, double rate) {
+    if (heap instanceof AbstractKineticHeap) {
+      ((AbstractKineticHeap) heap).insert(id, initialPriority, rate);
+    } else {
+      heap.insert(new KineticElement(id, initialPriority, rate, heap::getTime));
+    }
+  }
+
+  /*package*/ static AbstractKineticHeap asHandleHeap(IKineticHeap heap) {
+    if (!(heap instanceof AbstractKineticHeap)) {
+      throw new UnsupportedOperationException("Heap has no handles");
+    }
+    return (AbstractKineticHeap) heap;
+  }
+
+  private static long findGeneration(Path dir) throws IOException {
+    long generation = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SNAPSHOT_PREFIX + "*")) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(TMP_SUFFIX)) {
+          generation = Math.max(generation,
+              Long.parseLong(name.substring(SNAPSHOT_PREFIX.length())));
+        }
+      }
+    }
+    return generation;
+  }
+
+  private void deleteStaleFiles() throws IOException {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(TMP_SUFFIX)
+            || (name.startsWith(SNAPSHOT_PREFIX) && !file.equals(snapshotPath(generation)))
+            || (name.startsWith(LOG_PREFIX) && !file.equals(logPath(generation)))) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  // renames, creations and deletions only become durable once the directory itself is forced
+  private void syncDir() throws IOException {
+    try (FileChannel dirChannel = FileChannel.open(dir, READ)) {
+      dirChannel.force(true);
+    }
+  }
+
+  private Path snapshotPath(long generation) {
+    return dir.resolve(SNAPSHOT_PREFIX + generation);
+  }
+
+  private Path logPath(long generation) {
+    return dir.resolve(LOG_PREFIX + generation);
+  }
+
+}
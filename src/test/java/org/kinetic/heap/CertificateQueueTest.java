@@ -0,0 +1,193 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CertificateQueueTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private CertificateQueue certificates;
+
+  @BeforeEach
+  public void setUp() {
+    certificates = new CertificateQueue();
+  }
+
+  @Test
+  public void checkExtractOrder() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      double time = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      certificates.add(i, time);
+      priorityQueue.add(time);
+    }
+
+    while (!priorityQueue.isEmpty()) {
+      assertThat(certificates.getMinExpirationTime()).isEqualTo(priorityQueue.poll());
+      certificates.extractMin();
+    }
+    assertThat(certificates.isEmpty()).isTrue();
+    assertThat(certificates.getMinElementIdx()).isEqualTo(-1);
+  }
+
+  @Test
+  public void checkRemoveFromMiddle() {
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      certificates.add(i, ThreadLocalRandom.current().nextDouble(0.0, 1000.0));
+    }
+
+    List<Integer> toRemove = new ArrayList<>();
+    for (int i = 0; i < ELEMENTS_NUM; i += 3) {
+      toRemove.add(i);
+    }
+    Collections.shuffle(toRemove);
+
+    for (int elementIdx : toRemove) {
+      assertThat(certificates.remove(elementIdx)).isTrue();
+      assertThat(certificates.contains(elementIdx)).isFalse();
+      assertThat(certificates.remove(elementIdx)).isFalse();
+      assertQueueValid();
+    }
+
+    double last = Double.NEGATIVE_INFINITY;
+    while (!certificates.isEmpty()) {
+      assertThat(certificates.getMinElementIdx() % 3).isNotZero();
+      assertThat(certificates.getMinExpirationTime()).isGreaterThanOrEqualTo(last);
+      last = certificates.getMinExpirationTime();
+      certificates.extractMin();
+    }
+  }
+
+  @Test
+  public void checkExpirationTimeByElement() {
+    certificates.add(5, 3.0);
+    certificates.add(1, 1.0);
+    certificates.add(40, 2.0);
+
+    assertThat(certificates.getExpirationTime(40)).isEqualTo(2.0);
+    assertThat(certificates.getExpirationTime(2)).isNaN();
+    assertThat(certificates.getMinElementIdx()).isEqualTo(1);
+
+    certificates.clear();
+    assertThat(certificates.size()).isZero();
+    assertThat(certificates.contains(40)).isFalse();
+  }
+
+  @Test
+  public void checkLazyRemoveAndPurge() {
+    CertificateQueue lazyCertificates = CertificateQueue.createLazy();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      double time = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      lazyCertificates.add(i, time);
+      certificates.add(i, time);
+    }
+
+    for (int i = 0; i < ELEMENTS_NUM; i += 2) {
+      assertThat(lazyCertificates.remove(i)).isTrue();
+      assertThat(lazyCertificates.contains(i)).isFalse();
+      certificates.remove(i);
+
+      double time = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      lazyCertificates.add(i, time);
+      certificates.add(i, time);
+      assertThat(lazyCertificates.getExpirationTime(i)).isEqualTo(time);
+
+      assertThat(lazyCertificates.getStaleCount()).isLessThanOrEqualTo(
+          lazyCertificates.getEntryCount() / 2);
+    }
+
+    assertThat(lazyCertificates.size()).isEqualTo(certificates.size());
+    while (!certificates.isEmpty()) {
+      assertThat(lazyCertificates.getMinExpirationTime()).isEqualTo(
+          certificates.getMinExpirationTime());
+      assertThat(lazyCertificates.extractMin()).isEqualTo(certificates.extractMin());
+    }
+    assertThat(lazyCertificates.isEmpty()).isTrue();
+    assertThatThrownBy(() -> lazyCertificates.getPosition(0))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void checkAddAll() {
+    CertificateQueue lazyCertificates = CertificateQueue.createLazy();
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+
+    int[] elementIdxs = new int[ELEMENTS_NUM];
+    double[] times = new double[ELEMENTS_NUM];
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      elementIdxs[i] = ELEMENTS_NUM - i;
+      times[i] = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      priorityQueue.add(times[i]);
+    }
+    certificates.addAll(elementIdxs, times, ELEMENTS_NUM);
+    lazyCertificates.addAll(elementIdxs, times, ELEMENTS_NUM);
+    assertQueueValid();
+
+    // a batch smaller than the queue goes through the regular sift up
+    certificates.addAll(new int[] {0}, new double[] {-1.0}, 1);
+    lazyCertificates.addAll(new int[] {0}, new double[] {-1.0}, 1);
+    priorityQueue.add(-1.0);
+    assertQueueValid();
+
+    assertThat(certificates.getExpirationTime(ELEMENTS_NUM)).isEqualTo(times[0]);
+    while (!priorityQueue.isEmpty()) {
+      double time = priorityQueue.poll();
+      assertThat(certificates.getMinExpirationTime()).isEqualTo(time);
+      assertThat(lazyCertificates.getMinExpirationTime()).isEqualTo(time);
+      certificates.extractMin();
+      lazyCertificates.extractMin();
+    }
+    assertThat(lazyCertificates.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void checkCopy() {
+    ICertificateQueue[] queues = {certificates, CertificateQueue.createLazy(),
+        new TimerWheelCertificateQueue()};
+    for (ICertificateQueue queue : queues) {
+      for (int i = 0; i < ELEMENTS_NUM; i++) {
+        queue.add(i, ThreadLocalRandom.current().nextDouble(0.0, 1000.0));
+      }
+      for (int i = 0; i < ELEMENTS_NUM; i += 2) {
+        queue.remove(i);
+      }
+
+      ICertificateQueue copy = queue.copy();
+      assertThat(copy.size()).isEqualTo(queue.size());
+
+      // changes to the original stay out of the copy
+      queue.add(0, 0.0);
+      queue.remove(1);
+      assertThat(copy.contains(0)).isFalse();
+      assertThat(copy.contains(1)).isTrue();
+      queue.remove(0);
+
+      List<Double> copyTimes = new ArrayList<>();
+      while (!copy.isEmpty()) {
+        copyTimes.add(copy.getMinExpirationTime());
+        copy.extractMin();
+      }
+      assertThat(copyTimes).isSorted().hasSize(ELEMENTS_NUM / 2);
+      assertThat(queue.size()).isEqualTo(ELEMENTS_NUM / 2 - 1);
+    }
+  }
+
+  private void assertQueueValid() {
+    for (int i = 0; i < certificates.size(); i++) {
+      assertThat(certificates.getPosition(certificates.getElementIdxAt(i))).isEqualTo(i);
+      if (i > 0) {
+        assertThat(certificates.getExpirationTimeAt(i)).isGreaterThanOrEqualTo(
+            certificates.getExpirationTimeAt((i - 1) >> 1));
+      }
+    }
+  }
+}
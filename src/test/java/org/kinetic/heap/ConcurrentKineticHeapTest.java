@@ -0,0 +1,99 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentKineticHeapTest {
+
+  private static final int BATCH_SIZE = 10;
+
+  @Test
+  public void matchesKineticHeap() {
+    ConcurrentKineticHeap concurrentHeap = new ConcurrentKineticHeap();
+    KineticHeap kineticHeap = new KineticHeap();
+    for (int id = 0; id < 1000; id++) {
+      KineticElement element = new KineticElement(id,
+          ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+      concurrentHeap.insert(element);
+      kineticHeap.insert(element);
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      concurrentHeap.fastForward(t);
+      kineticHeap.fastForward(t);
+      assertThat(concurrentHeap.getCurTime()).isEqualTo(t);
+      assertThat(concurrentHeap.getMin().getId()).isEqualTo(kineticHeap.getMin().getId());
+      assertThat(concurrentHeap.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+      assertThat(concurrentHeap.size()).isEqualTo(kineticHeap.size());
+    }
+  }
+
+  @Test
+  public void snapshotMinKeepsSnapshotTime() {
+    ConcurrentKineticHeap concurrentHeap = new ConcurrentKineticHeap(new KineticHeapPrimitive());
+    concurrentHeap.insert(new KineticElement(1, 1.0, 2.0));
+    concurrentHeap.insert(new KineticElement(2, 4.0, 0.5));
+    concurrentHeap.advanceTo(1.0);
+
+    ConcurrentKineticHeap.Snapshot snapshot = concurrentHeap.getSnapshot();
+    concurrentHeap.advanceTo(5.0);
+    assertThat(snapshot.getMin().getId()).isEqualTo(1);
+    assertThat(snapshot.getMin().getPriority()).isEqualTo(3.0);
+    assertThat(concurrentHeap.getMin().getId()).isEqualTo(2);
+    assertThat(concurrentHeap.getMin().getPriority()).isEqualTo(6.5);
+  }
+
+  @Test
+  public void readersSeeWholeBatches() throws Exception {
+    ConcurrentKineticHeap concurrentHeap = new ConcurrentKineticHeap();
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        readers.add(executor.submit(() -> {
+          double lastTime = 0.0;
+          while (!done.get()) {
+            ConcurrentKineticHeap.Snapshot snapshot = concurrentHeap.getSnapshot();
+            assertThat(snapshot.getSize() % BATCH_SIZE).isZero();
+            assertThat(snapshot.getMin() == null).isEqualTo(snapshot.getSize() == 0);
+            assertThat(snapshot.getTime()).isGreaterThanOrEqualTo(lastTime);
+            lastTime = snapshot.getTime();
+          }
+        }));
+      }
+
+      int nextId = 0;
+      for (int t = 1; t <= 2000; t++) {
+        int firstId = nextId;
+        nextId += BATCH_SIZE;
+        double time = t;
+        concurrentHeap.update(heap -> {
+          for (int id = firstId; id < firstId + BATCH_SIZE; id++) {
+            heap.insert(new KineticElement(id,
+                ThreadLocalRandom.current().nextDouble(time, time + 10.0),
+                ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+          }
+          heap.advanceTo(time);
+        });
+      }
+      done.set(true);
+
+      for (Future<?> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(concurrentHeap.size()).isEqualTo(2000 * BATCH_SIZE);
+  }
+}
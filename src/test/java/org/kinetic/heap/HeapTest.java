@@ -13,6 +13,8 @@ import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class HeapTest {
 
@@ -311,6 +313,28 @@ class HeapTest {
 
   }
 
+  @ParameterizedTest
+  @ValueSource(ints = {2, 4, 8})
+  public void checkOrderingWithArity(int arity) {
+    Heap<Integer> aryHeap = new Heap<>(null, null, arity);
+    PriorityQueue<Integer> priorityQueue = new PriorityQueue<>();
+    for (int i = 0; i < 10_000; i++) {
+      int value = ThreadLocalRandom.current().nextInt(1_000_000);
+      aryHeap.insert(value);
+      priorityQueue.add(value);
+    }
+
+    for (int i = 1; i < aryHeap.size(); i++) {
+      assertThat(aryHeap.getValue(aryHeap.getParentIdx(i))).isLessThanOrEqualTo(
+          aryHeap.getValue(i));
+    }
+    assertThat(aryHeap.getFirstChildIdx(1)).isEqualTo(arity + 1);
+
+    while (!priorityQueue.isEmpty()) {
+      assertThat(aryHeap.extractMin()).isEqualTo(priorityQueue.poll());
+    }
+  }
+
   @Test
   public void checkMinHeapProperty() {
     List<Integer> input = Arrays.asList(1, 3, 8, 20, 21);
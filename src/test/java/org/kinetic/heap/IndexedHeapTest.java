@@ -0,0 +1,93 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Getter;
+import lombok.Setter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IndexedHeapTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private IndexedHeap<MutableElement> heap;
+
+  @Getter
+  @Setter
+  static class MutableElement implements Comparable<MutableElement>, IIndexedElement {
+
+    private double priority;
+
+    private int ownIdx = -1;
+
+    MutableElement(double priority) {
+      this.priority = priority;
+    }
+
+    @Override
+    public int compareTo(MutableElement other) {
+      return Double.compare(priority, other.priority);
+    }
+  }
+
+  @BeforeEach
+  public void setUp() {
+    heap = new IndexedHeap<>(1);
+  }
+
+  @Test
+  public void checkRemoveAndUpdate() {
+    List<MutableElement> elements = new ArrayList<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      MutableElement element = new MutableElement(
+          ThreadLocalRandom.current().nextDouble(0.0, 1000.0));
+      elements.add(element);
+      heap.insert(element);
+    }
+    assertHeapValid();
+
+    Collections.shuffle(elements);
+    List<MutableElement> removed = elements.subList(0, ELEMENTS_NUM / 3);
+    for (MutableElement element : removed) {
+      assertThat(heap.remove(element)).isTrue();
+      assertThat(heap.contains(element)).isFalse();
+      assertThat(element.getOwnIdx()).isEqualTo(-1);
+      assertThat(heap.remove(element)).isFalse();
+    }
+    assertHeapValid();
+
+    List<MutableElement> remaining = elements.subList(ELEMENTS_NUM / 3, ELEMENTS_NUM);
+    for (MutableElement element : remaining) {
+      element.setPriority(ThreadLocalRandom.current().nextDouble(0.0, 1000.0));
+      heap.update(element);
+    }
+    assertHeapValid();
+    assertThat(heap.size()).isEqualTo(remaining.size());
+    assertThatThrownBy(() -> heap.update(removed.get(0)))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    double last = Double.NEGATIVE_INFINITY;
+    while (heap.size() > 0) {
+      MutableElement element = heap.extractMin();
+      assertThat(element.getPriority()).isGreaterThanOrEqualTo(last);
+      last = element.getPriority();
+    }
+    assertThat(heap.getMin()).isNull();
+  }
+
+  private void assertHeapValid() {
+    for (int i = 0; i < heap.size(); i++) {
+      assertThat(heap.getValue(i).getOwnIdx()).isEqualTo(i);
+      if (i > 0) {
+        assertThat(heap.getValue(i).getPriority()).isGreaterThanOrEqualTo(
+            heap.getValue((i - 1) >> 1).getPriority());
+      }
+    }
+  }
+}
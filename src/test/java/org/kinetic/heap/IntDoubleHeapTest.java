@@ -0,0 +1,71 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntDoubleHeapTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private IntDoubleHeap heap;
+
+  @BeforeEach
+  public void setUp() {
+    heap = new IntDoubleHeap(1);
+  }
+
+  @Test
+  public void checkExtractOrder() {
+    double[] keys = new double[ELEMENTS_NUM];
+    PriorityQueue<Integer> priorityQueue = new PriorityQueue<>(
+        (v1, v2) -> Double.compare(keys[v1], keys[v2]));
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      keys[i] = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      heap.insert(i, keys[i]);
+      priorityQueue.add(i);
+    }
+    assertHeapValid();
+
+    while (!priorityQueue.isEmpty()) {
+      int value = priorityQueue.poll();
+      assertThat(heap.getMinKey()).isEqualTo(keys[value]);
+      assertThat(heap.extractMin()).isEqualTo(value);
+    }
+    assertThat(heap.isEmpty()).isTrue();
+    assertThat(heap.getMinKey()).isNaN();
+    assertThatThrownBy(() -> heap.extractMin()).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void checkReplaceMin() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    for (int i = 0; i < 100; i++) {
+      double key = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      heap.insert(i, key);
+      priorityQueue.add(key);
+    }
+
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      double key = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      assertThat(heap.getMinKey()).isEqualTo(priorityQueue.poll());
+      heap.replaceMin(i, key);
+      priorityQueue.add(key);
+      assertThat(heap.size()).isEqualTo(priorityQueue.size());
+    }
+    assertHeapValid();
+
+    heap.clear();
+    assertThat(heap.size()).isZero();
+  }
+
+  private void assertHeapValid() {
+    for (int i = 1; i < heap.size(); i++) {
+      assertThat(heap.getKey(i)).isGreaterThanOrEqualTo(heap.getKey((i - 1) >> 1));
+    }
+  }
+}
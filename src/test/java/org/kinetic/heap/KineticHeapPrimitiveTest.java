@@ -0,0 +1,347 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KineticHeapPrimitiveTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private KineticHeapPrimitive primitiveHeap;
+
+  private KineticHeap kineticHeap;
+
+  @BeforeEach
+  public void setUp() {
+    primitiveHeap = new KineticHeapPrimitive();
+    kineticHeap = new KineticHeap();
+  }
+
+  @Test
+  public void matchesKineticHeap() {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      kineticHeap.insert(new KineticElement(id, initialPriority, rate, () -> kineticHeap.getCurTime()));
+      primitiveHeap.insert(id, initialPriority, rate);
+    }
+    assertSameOrder();
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      primitiveHeap.fastForward(t);
+      assertSameOrder();
+
+      assertThat(primitiveHeap.extractMinId()).isEqualTo(kineticHeap.extractMin().getId());
+      assertHandlesValid();
+    }
+
+    while (kineticHeap.size() > 0) {
+      assertThat(primitiveHeap.getMinPriority()).isEqualTo(kineticHeap.getMin().getPriority());
+      assertThat(primitiveHeap.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+    assertThat(primitiveHeap.size()).isZero();
+    assertThat(primitiveHeap.getMin()).isNull();
+  }
+
+  @Test
+  public void handlesAreStableAndReused() {
+    int first = primitiveHeap.insert(1, 5.0, 1.0);
+    int second = primitiveHeap.insert(2, 1.0, 1.0);
+    int third = primitiveHeap.insert(3, 3.0, 1.0);
+
+    assertThat(primitiveHeap.getId(primitiveHeap.getSlot(first))).isEqualTo(1);
+    assertThat(primitiveHeap.getId(primitiveHeap.getSlot(second))).isEqualTo(2);
+    assertThat(primitiveHeap.getId(primitiveHeap.getSlot(third))).isEqualTo(3);
+    assertThat(primitiveHeap.getMinHandle()).isEqualTo(second);
+
+    assertThat(primitiveHeap.extractMinId()).isEqualTo(2);
+    assertThat(primitiveHeap.getSlot(second)).isEqualTo(-1);
+
+    int fourth = primitiveHeap.insert(4, 0.0, 1.0);
+    assertThat(fourth).isEqualTo(second);
+    assertThat(primitiveHeap.getMinId()).isEqualTo(4);
+    assertHandlesValid();
+  }
+
+  @Test
+  public void changeTrajectoryMatchesKineticHeap() {
+    int[] handles = new int[1000];
+    for (int id = 0; id < handles.length; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      handles[id] = primitiveHeap.insert(id, initialPriority, rate);
+      assertThat(kineticHeap.insert(id, initialPriority, rate)).isEqualTo(handles[id]);
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      primitiveHeap.fastForward(t);
+      for (int i = 0; i < 100; i++) {
+        int handle = handles[ThreadLocalRandom.current().nextInt(handles.length)];
+        double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 40.0);
+        double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+        kineticHeap.changeTrajectory(handle, initialPriority, rate);
+        primitiveHeap.changeTrajectory(handle, initialPriority, rate);
+      }
+      assertSameOrder();
+      assertHandlesValid();
+    }
+  }
+
+  @Test
+  public void removeMatchesKineticHeap() {
+    for (int id = 0; id < 1000; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      primitiveHeap.insert(id, initialPriority, rate);
+      kineticHeap.insert(id, initialPriority, rate);
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      primitiveHeap.fastForward(t);
+      for (int i = 0; i < 30; i++) {
+        int handle = primitiveHeap.getHandle(
+            ThreadLocalRandom.current().nextInt(primitiveHeap.size()));
+        assertThat(kineticHeap.remove(handle)).isTrue();
+        assertThat(primitiveHeap.remove(handle)).isTrue();
+        assertThat(primitiveHeap.contains(handle)).isFalse();
+      }
+      assertSameOrder();
+      assertHandlesValid();
+    }
+  }
+
+  @Test
+  public void insertAllMatchesKineticHeap() {
+    int[] ids = new int[ELEMENTS_NUM];
+    double[] initialPriorities = new double[ELEMENTS_NUM];
+    double[] rates = new double[ELEMENTS_NUM];
+    List<KineticElement> elements = new ArrayList<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      ids[i] = i + 1;
+      initialPriorities[i] = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      rates[i] = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      elements.add(new KineticElement(ids[i], initialPriorities[i], rates[i]));
+    }
+
+    primitiveHeap.insertAll(ids, initialPriorities, rates, ELEMENTS_NUM);
+    kineticHeap.insertAll(elements);
+    assertSameOrder();
+    assertHandlesValid();
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      primitiveHeap.fastForward(t);
+      assertSameOrder();
+    }
+  }
+
+  @Test
+  public void insertAllRejectsBatchUnchanged() {
+    primitiveHeap.insert(1, 1.0, 1.0);
+    int[] ids = {2, 3, 4};
+    double[] initialPriorities = {2.0, 3.0, 4.0};
+
+    assertThatThrownBy(() -> primitiveHeap.insertAll(ids, initialPriorities, new double[2], 3))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> primitiveHeap.insertAll(ids, initialPriorities, new double[3], -1))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(primitiveHeap.size()).isEqualTo(1);
+    assertThat(primitiveHeap.insert(5, 5.0, 1.0)).isEqualTo(1);
+    assertHandlesValid();
+  }
+
+  @Test
+  public void peekTopKIdsMatchesKineticHeap() {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      kineticHeap.insert(new KineticElement(id, initialPriority, rate));
+      primitiveHeap.insert(id, initialPriority, rate);
+    }
+
+    int[] ids = new int[100];
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      primitiveHeap.fastForward(t);
+
+      assertThat(primitiveHeap.peekTopKIds(100, ids)).isEqualTo(100);
+      assertThat(ids).containsExactly(kineticHeap.peekTopK(100).stream()
+          .mapToInt(KineticElement::getId).toArray());
+      assertSameOrder();
+    }
+  }
+
+  @Test
+  public void forkEvolvesIndependently() {
+    KineticHeap otherKineticHeap = new KineticHeap();
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      primitiveHeap.insert(id, initialPriority, rate);
+      kineticHeap.insert(id, initialPriority, rate);
+      otherKineticHeap.insert(id, initialPriority, rate);
+    }
+    primitiveHeap.fastForward(5);
+    kineticHeap.fastForward(5);
+    otherKineticHeap.fastForward(5);
+
+    KineticHeapPrimitive fork = primitiveHeap.fork();
+    assertSame(fork, otherKineticHeap);
+
+    for (int t = 6; t <= 20; t++) {
+      primitiveHeap.fastForward(t);
+      kineticHeap.fastForward(t);
+      primitiveHeap.changeTrajectory(primitiveHeap.getMinHandle(), t, 0.1);
+      kineticHeap.changeTrajectory(kineticHeap.getMinHandle(), t, 0.1);
+
+      fork.advanceTo(t + 0.5);
+      otherKineticHeap.advanceTo(t + 0.5);
+      assertThat(fork.extractMinId()).isEqualTo(otherKineticHeap.extractMin().getId());
+      fork.insert(-t, t, 1.0);
+      otherKineticHeap.insert(-t, t, 1.0);
+
+      assertSameOrder();
+      assertSame(fork, otherKineticHeap);
+    }
+  }
+
+  @Test
+  public void forkCopiesCertificatesAndHandles() {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      primitiveHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+    }
+    primitiveHeap.fastForward(2);
+
+    KineticHeapPrimitive fork = primitiveHeap.fork();
+    ICertificateQueue certificates = primitiveHeap.getCertificates();
+    assertThat(fork.getCertificates()).isNotSameAs(certificates);
+    assertThat(fork.getCertificates().size()).isEqualTo(certificates.size());
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      assertThat(fork.getHandle(i)).isEqualTo(primitiveHeap.getHandle(i));
+      assertThat(fork.getCertificateExpirationTime(i))
+          .isEqualTo(Double.valueOf(primitiveHeap.getCertificateExpirationTime(i)));
+    }
+
+    // the copies are flat, emptying the fork leaves the certificates of this heap alone
+    int certificateCount = certificates.size();
+    fork.clear();
+    assertThat(fork.getCertificates().isEmpty()).isTrue();
+    assertThat(certificates.size()).isEqualTo(certificateCount);
+    assertHandlesValid();
+  }
+
+  @Test
+  public void snapshotIsImmutable() {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      primitiveHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+    }
+    primitiveHeap.fastForward(3);
+
+    int[] ids = new int[ELEMENTS_NUM];
+    double[] priorities = new double[ELEMENTS_NUM];
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      ids[i] = primitiveHeap.getId(i);
+      priorities[i] = primitiveHeap.getPriority(i);
+    }
+    KineticHeapPrimitive.Snapshot snapshot = primitiveHeap.snapshot();
+
+    primitiveHeap.fastForward(20);
+    for (int i = 0; i < 100; i++) {
+      primitiveHeap.extractMinId();
+    }
+    primitiveHeap.insert(0, -1.0, 0.0);
+
+    assertThat(snapshot.size()).isEqualTo(ELEMENTS_NUM);
+    assertThat(snapshot.getTime()).isEqualTo(3.0);
+    assertThat(snapshot.getMinId()).isEqualTo(ids[0]);
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      assertThat(snapshot.getId(i)).isEqualTo(ids[i]);
+      assertThat(snapshot.getPriority(i)).isEqualTo(priorities[i]);
+    }
+    assertThat(primitiveHeap.getMinId()).isZero();
+  }
+
+  @Test
+  public void saveAndLoadRestoresHeap(@TempDir Path dir) throws IOException {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      primitiveHeap.insert(id, initialPriority, rate);
+      kineticHeap.insert(id, initialPriority, rate);
+    }
+    primitiveHeap.fastForward(5);
+    kineticHeap.fastForward(5);
+    for (int i = 0; i < 100; i++) {
+      primitiveHeap.extractMinId();
+      kineticHeap.extractMin();
+    }
+
+    Path file = dir.resolve("heap.bin");
+    primitiveHeap.save(file);
+    KineticHeapPrimitive loaded = KineticHeapPrimitive.load(file);
+
+    assertSame(loaded, kineticHeap);
+    assertThat(loaded.getArity()).isEqualTo(primitiveHeap.getArity());
+    for (int i = 0; i < loaded.size(); i++) {
+      assertThat(loaded.getHandle(i)).isEqualTo(primitiveHeap.getHandle(i));
+      assertThat(loaded.getSlot(loaded.getHandle(i))).isEqualTo(i);
+    }
+    // freed handles come back in the same order
+    assertThat(loaded.insert(-1, 100.0, 1.0)).isEqualTo(primitiveHeap.insert(-1, 100.0, 1.0));
+    kineticHeap.insert(-1, 100.0, 1.0);
+
+    for (int t = 6; t <= 20; t++) {
+      loaded.fastForward(t);
+      kineticHeap.fastForward(t);
+      assertThat(loaded.extractMinId()).isEqualTo(kineticHeap.extractMin().getId());
+      assertSame(loaded, kineticHeap);
+    }
+  }
+
+  @Test
+  public void loadRejectsForeignFile(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("heap.bin");
+    Files.write(file, new byte[128]);
+    assertThatThrownBy(() -> KineticHeapPrimitive.load(file)).isInstanceOf(IOException.class);
+  }
+
+  private void assertSame(KineticHeapPrimitive heap, KineticHeap other) {
+    assertThat(heap.size()).isEqualTo(other.size());
+    assertThat(heap.getTime()).isEqualTo(other.getTime());
+    for (int i = 0; i < other.size(); i++) {
+      assertThat(heap.getId(i)).isEqualTo(other.getValue(i).getId());
+      assertThat(Double.compare(heap.getCertificateExpirationTime(i),
+          other.getCertificateExpirationTime(i))).isZero();
+    }
+  }
+
+  private void assertSameOrder() {
+    assertThat(primitiveHeap.size()).isEqualTo(kineticHeap.size());
+    for (int i = 0; i < kineticHeap.size(); i++) {
+      assertThat(primitiveHeap.getId(i)).isEqualTo(kineticHeap.getValue(i).getId());
+      assertThat(Double.compare(primitiveHeap.getCertificateExpirationTime(i),
+          kineticHeap.getCertificateExpirationTime(i))).isZero();
+    }
+  }
+
+  private void assertHandlesValid() {
+    for (int i = 0; i < primitiveHeap.size(); i++) {
+      assertThat(primitiveHeap.getSlot(primitiveHeap.getHandle(i))).isEqualTo(i);
+    }
+  }
+}
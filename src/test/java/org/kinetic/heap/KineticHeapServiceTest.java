@@ -0,0 +1,148 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KineticHeapServiceTest {
+
+  private static final int PRODUCERS_NUM = 8;
+
+  private static final int INSERTS_PER_PRODUCER = 2_000;
+
+  private KineticHeapService service;
+
+  @BeforeEach
+  public void setUp() {
+    service = new KineticHeapService(new KineticHeap(), 64);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    service.close();
+  }
+
+  @Test
+  public void insertedElementsFollowHeapTime() throws Exception {
+    service.insert(1, 1.0, 2.0);
+    service.insert(2, 3.0, 0.5);
+    service.advanceTo(2.0).get();
+
+    assertThat(service.getMin().get().getPriority()).isEqualTo(4.0);
+    assertThat(service.extractMin().get().getPriority()).isEqualTo(4.0);
+    assertThat(service.extractMin().get().getPriority()).isEqualTo(5.0);
+  }
+
+  @Test
+  public void concurrentInsertsMatchKineticHeap() throws Exception {
+    List<KineticElement> elements = new ArrayList<>();
+    for (int id = 0; id < PRODUCERS_NUM * INSERTS_PER_PRODUCER; id++) {
+      elements.add(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+
+    ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS_NUM);
+    List<CompletableFuture<Integer>> handles = new ArrayList<>();
+    try {
+      List<CompletableFuture<List<CompletableFuture<Integer>>>> submitted = new ArrayList<>();
+      for (int p = 0; p < PRODUCERS_NUM; p++) {
+        List<KineticElement> part = elements.subList(p * INSERTS_PER_PRODUCER,
+            (p + 1) * INSERTS_PER_PRODUCER);
+        submitted.add(CompletableFuture.supplyAsync(() -> part.stream()
+            .map(e -> service.insert(e.getId(), e.getInitialPriority(), e.getRate()))
+            .toList(), producers));
+      }
+      for (CompletableFuture<List<CompletableFuture<Integer>>> part : submitted) {
+        handles.addAll(part.get());
+      }
+    } finally {
+      producers.shutdown();
+    }
+
+    CompletableFuture.allOf(handles.toArray(new CompletableFuture<?>[0])).get();
+    assertThat(handles.stream().map(CompletableFuture::join).distinct().count())
+        .isEqualTo(elements.size());
+
+    KineticHeap kineticHeap = new KineticHeap();
+    kineticHeap.insertAll(elements);
+    for (int t = 1; t <= 20; t++) {
+      assertThat(service.advanceTo(t).get()).isEqualTo(t);
+      kineticHeap.fastForward(t);
+      assertThat(service.extractMin().get().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+    assertThat(service.submit(KineticHeap::size).get()).isEqualTo(kineticHeap.size());
+  }
+
+  @Test
+  public void commandsApplyInSubmissionOrder() throws Exception {
+    CompletableFuture<Integer> first = service.insert(1, 0.0, 2.0);
+    CompletableFuture<Integer> second = service.insert(2, 1.0, 1.0);
+    CompletableFuture<Double> advance = service.advanceTo(2.0);
+    CompletableFuture<KineticElement> min = service.getMin();
+    CompletableFuture<Boolean> removed = service.remove(first.get());
+    CompletableFuture<Boolean> removedAgain = service.remove(first.get());
+
+    assertThat(advance.get()).isEqualTo(2.0);
+    assertThat(min.get().getId()).isEqualTo(2);
+    assertThat(removed.get()).isTrue();
+    assertThat(removedAgain.get()).isFalse();
+
+    service.changeTrajectory(second.get(), 5.0, 0.0).get();
+    assertThat(service.getMin().get().getInitialPriority()).isEqualTo(5.0);
+
+    assertThatThrownBy(() -> service.changeTrajectory(100, 0.0, 0.0).get())
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void rejectsCommandsAfterClose() throws Exception {
+    service.insert(1, 0.0, 1.0).get();
+    service.close();
+
+    assertThatThrownBy(() -> service.getMin().get())
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void commandsRacingCloseAllComplete() throws Exception {
+    for (int round = 0; round < 50; round++) {
+      KineticHeapService racingService = new KineticHeapService(new KineticHeap(), 16);
+      List<CompletableFuture<Integer>> futures = new ArrayList<>();
+      ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS_NUM);
+      List<CompletableFuture<List<CompletableFuture<Integer>>>> submitted = new ArrayList<>();
+      for (int producer = 0; producer < PRODUCERS_NUM; producer++) {
+        submitted.add(CompletableFuture.supplyAsync(() -> {
+          List<CompletableFuture<Integer>> own = new ArrayList<>();
+          for (int i = 0; i < 200; i++) {
+            own.add(racingService.insert(i, i, 1.0));
+          }
+          return own;
+        }, producers));
+      }
+      racingService.close();
+      for (CompletableFuture<List<CompletableFuture<Integer>>> own : submitted) {
+        futures.addAll(own.get());
+      }
+      producers.shutdown();
+
+      // applied or rejected, but never left pending
+      for (CompletableFuture<Integer> future : futures) {
+        assertThat(future.handle((handle, e) -> e == null || e instanceof IllegalStateException))
+            .succeedsWithin(Duration.ofSeconds(5)).isEqualTo(true);
+      }
+    }
+  }
+}
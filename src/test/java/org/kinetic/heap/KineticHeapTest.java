@@ -1,5 +1,7 @@
 package org.kinetic.heap;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 import com.opencsv.CSVReader;
@@ -112,8 +114,8 @@ class KineticHeapTest {
       assertCertificatesMatchElements(kineticHeap);
       kineticHeap.insert(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
           ThreadLocalRandom.current().nextDouble(0.5, 2.0), () -> kineticHeap.getCurTime()));
-      assertThat(checkElementsCorrect(kineticHeap.getHeap().getHeapArray(KineticElement.class),
-          kineticHeap.getCurTime(), 0, kineticHeap.size() - 1)).isTrue();
+      assertThat(checkElementsCorrect(kineticHeap, kineticHeap.getCurTime(), 0,
+          kineticHeap.size() - 1)).isTrue();
       assertCertificatesMatchElements(kineticHeap);
 
       kineticHeap.extractMin();
@@ -221,77 +223,509 @@ class KineticHeapTest {
     assertElementsCorrect(kineticHeap);
   }
 
+  @Test
+  public void lazyInvalidationMatchesEager() {
+    CertificateQueue lazyCertificates = CertificateQueue.createLazy();
+
+    assertSameEvolution(new KineticHeap(lazyCertificates));
+
+    assertThat(lazyCertificates.getStaleCount()).isLessThanOrEqualTo(
+        lazyCertificates.getEntryCount() / 2);
+  }
+
+  @Test
+  public void timerWheelMatchesBinaryHeap() {
+    assertSameEvolution(new KineticHeap(new TimerWheelCertificateQueue(0.25, 16)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0.0, 0.1})
+  public void testCoincidentFailures(double coincidenceEpsilon) {
+    kineticHeap = new KineticHeap(new CertificateQueue(), coincidenceEpsilon);
+
+    // every line passes through (4, 10) or (7, 30), so whole groups cross at the same instant
+    for (int id = 1; id <= 200; id++) {
+      double rate = 0.5 + (id % 50) * 0.05;
+      double crossingTime = id % 2 == 0 ? 4.0 : 7.0;
+      double crossingPriority = id % 2 == 0 ? 10.0 : 30.0;
+      kineticHeap.insert(new KineticElement(id, crossingPriority - rate * crossingTime, rate,
+          () -> kineticHeap.getCurTime()));
+    }
+    assertElementsCorrect(kineticHeap);
+
+    for (int t = 1; t <= 12; t++) {
+      kineticHeap.fastForward(t);
+      assertElementsCorrect(kineticHeap);
+      assertCertificatesMatchElements(kineticHeap);
+      assertCertificatesFutureTimeInQueue(t);
+    }
+
+    double lastPriority = Double.NEGATIVE_INFINITY;
+    while (kineticHeap.size() > 0) {
+      double priority = kineticHeap.extractMin().getPriority();
+      assertThat(priority).isGreaterThanOrEqualTo(lastPriority);
+      lastPriority = priority;
+    }
+  }
+
+  @Test
+  public void testAdvanceToSubUnitCrossing() {
+    kineticHeap.insert(new KineticElement(1, 0.0, 2.0));
+    kineticHeap.insert(new KineticElement(2, 0.5, 1.0));
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(1);
+
+    kineticHeap.advanceTo(0.75);
+    assertThat(kineticHeap.getTime()).isEqualTo(0.75);
+    assertThat(kineticHeap.getCurTime()).isEqualTo(0);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(2);
+    assertThat(kineticHeap.getCertificates().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testTieAtCurrentTime() {
+    KineticHeapPrimitive primitiveHeap = new KineticHeapPrimitive();
+    kineticHeap.insert(0, 0.0, 1.0);
+    primitiveHeap.insert(0, 0.0, 1.0);
+    kineticHeap.advanceTo(1.0);
+    primitiveHeap.advanceTo(1.0);
+
+    // ties with the root at 1.0 and is below it right after
+    kineticHeap.insert(1, 0.5, 0.5);
+    primitiveHeap.insert(1, 0.5, 0.5);
+    kineticHeap.advanceTo(2.0);
+    primitiveHeap.advanceTo(2.0);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(1);
+    assertThat(primitiveHeap.getMinId()).isEqualTo(1);
+
+    // a changed trajectory tying at the current time is placed by its order right after
+    kineticHeap.changeTrajectory(kineticHeap.getMinHandle(), -2.0, 2.0);
+    primitiveHeap.changeTrajectory(primitiveHeap.getMinHandle(), -2.0, 2.0);
+    kineticHeap.advanceTo(3.0);
+    primitiveHeap.advanceTo(3.0);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(0);
+    assertThat(primitiveHeap.getMinId()).isEqualTo(0);
+  }
+
+  @Test
+  public void testPriorityAtFractionalTime() {
+    kineticHeap.insert(1, 0.0, 2.0);
+    kineticHeap.insert(2, 0.5, 1.0);
+    KineticHeapPrimitive primitiveHeap = new KineticHeapPrimitive();
+    primitiveHeap.insert(1, 0.0, 2.0);
+    primitiveHeap.insert(2, 0.5, 1.0);
+
+    kineticHeap.advanceTo(2.5);
+    primitiveHeap.advanceTo(2.5);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(2);
+    assertThat(kineticHeap.getMin().getPriority()).isEqualTo(3.0);
+    assertThat(primitiveHeap.getMin().getPriority()).isEqualTo(3.0);
+    assertThat(kineticHeap.getMin().getPriority())
+        .isLessThan(kineticHeap.getValue(1).getPriority());
+  }
+
+  @Test
+  public void testAdvanceToNextEvent() {
+    KineticHeap polledHeap = new KineticHeap();
+    for (int id = 1; id <= 500; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      kineticHeap.insert(new KineticElement(id, initialPriority, rate));
+      polledHeap.insert(new KineticElement(id, initialPriority, rate));
+    }
+
+    double lastEventTime = kineticHeap.getTime();
+    while (!kineticHeap.getCertificates().isEmpty()) {
+      double nextExpiration = kineticHeap.getCertificates().getMinExpirationTime();
+      double eventTime = kineticHeap.advanceToNextEvent();
+
+      assertThat(eventTime).isEqualTo(nextExpiration).isGreaterThan(lastEventTime);
+      assertThat(kineticHeap.getTime()).isEqualTo(eventTime);
+      assertThat(kineticHeap.getCertificates().getMinExpirationTime()).isGreaterThan(eventTime);
+      assertCertificatesMatchElements(kineticHeap);
+
+      polledHeap.advanceTo(eventTime);
+      for (int i = 1; i < kineticHeap.size(); i++) {
+        assertThat(kineticHeap.getValue(Heap.getParent(i)).priorityAt(eventTime))
+            .isLessThanOrEqualTo(kineticHeap.getValue(i).priorityAt(eventTime) + 1e-9);
+      }
+      assertThat(kineticHeap.getMin().priorityAt(eventTime))
+          .isCloseTo(polledHeap.getMin().priorityAt(eventTime), within(1e-9));
+      lastEventTime = eventTime;
+    }
+
+    assertThat(kineticHeap.advanceToNextEvent()).isEqualTo(Double.POSITIVE_INFINITY);
+    assertThat(kineticHeap.getTime()).isEqualTo(lastEventTime);
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0.0, 0.1})
+  public void testAdvanceToNextEventBatchesCoincidentFailures(double coincidenceEpsilon) {
+    kineticHeap = new KineticHeap(new CertificateQueue(), coincidenceEpsilon);
+    // slot 3 overtakes its parent in slot 1 at 1.0, slot 5 its parent in slot 2 at 1.05
+    kineticHeap.insert(1, -10.0, 0.0);
+    kineticHeap.insert(2, 1.0, 0.0);
+    kineticHeap.insert(3, 2.0, 0.0);
+    kineticHeap.insert(4, 3.0, -2.0);
+    kineticHeap.insert(5, 3.5, 0.0);
+    kineticHeap.insert(6, 4.1, -2.0);
+
+    assertThat(kineticHeap.advanceToNextEvent()).isEqualTo(1.0);
+    assertThat(kineticHeap.getValue(1).getId()).isEqualTo(4);
+    if (coincidenceEpsilon == 0.0) {
+      assertThat(kineticHeap.getValue(2).getId()).isEqualTo(3);
+      assertThat(kineticHeap.advanceToNextEvent()).isCloseTo(1.05, within(1e-9));
+    }
+    assertThat(kineticHeap.getValue(2).getId()).isEqualTo(6);
+    assertThat(kineticHeap.getTime()).isLessThan(1.06);
+    assertCertificatesMatchElements(kineticHeap);
+
+    assertThat(kineticHeap.advanceToNextEvent()).isCloseTo(6.5, within(1e-9));
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(4);
+  }
+
+  @Test
+  public void testChangeTrajectory() {
+    int[] handles = new int[1000];
+    for (int id = 0; id < handles.length; id++) {
+      handles[id] = kineticHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      for (int i = 0; i < 200; i++) {
+        int id = ThreadLocalRandom.current().nextInt(handles.length);
+        kineticHeap.changeTrajectory(handles[id], ThreadLocalRandom.current().nextDouble(0.0, 40.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+
+        assertThat(kineticHeap.getValue(kineticHeap.getSlot(handles[id])).getId()).isEqualTo(id);
+      }
+
+      assertElementsCorrect(kineticHeap);
+      assertCertificatesMatchElements(kineticHeap);
+      assertCertificatesExact(kineticHeap);
+    }
+
+    assertThatThrownBy(() -> kineticHeap.changeTrajectory(-1, 0.0, 1.0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testRemoveByHandle() {
+    List<Integer> handles = new ArrayList<>();
+    for (int id = 0; id < 1000; id++) {
+      handles.add(kineticHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      for (int i = 0; i < 30; i++) {
+        int handle = handles.remove(ThreadLocalRandom.current().nextInt(handles.size()));
+        assertThat(kineticHeap.contains(handle)).isTrue();
+        assertThat(kineticHeap.remove(handle)).isTrue();
+        assertThat(kineticHeap.contains(handle)).isFalse();
+        assertThat(kineticHeap.remove(handle)).isFalse();
+      }
+
+      handles.remove(Integer.valueOf(kineticHeap.getMinHandle()));
+      kineticHeap.extractMin();
+
+      assertThat(kineticHeap.size()).isEqualTo(handles.size());
+      assertElementsCorrect(kineticHeap);
+      assertCertificatesMatchElements(kineticHeap);
+      assertCertificatesExact(kineticHeap);
+    }
+
+    for (int handle : handles) {
+      assertThat(kineticHeap.remove(handle)).isTrue();
+    }
+    assertThat(kineticHeap.size()).isZero();
+    assertThat(kineticHeap.getCertificates().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testInsertAll() {
+    List<KineticElement> elements = new ArrayList<>();
+    for (int id = 1; id <= BIG_STEPS_NUM; id++) {
+      elements.add(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0), () -> kineticHeap.getCurTime()));
+    }
+    kineticHeap.fastForward(1);
+    kineticHeap.insertAll(elements);
+
+    assertThat(kineticHeap.size()).isEqualTo(BIG_STEPS_NUM);
+    assertElementsCorrect(kineticHeap);
+    assertCertificatesMatchElements(kineticHeap);
+    assertCertificatesExact(kineticHeap);
+    for (int i = 0; i < kineticHeap.size(); i++) {
+      assertThat(kineticHeap.getSlot(kineticHeap.getHandle(i))).isEqualTo(i);
+    }
+
+    kineticHeap.insertAll(elements.subList(0, 10));
+    assertThat(kineticHeap.size()).isEqualTo(BIG_STEPS_NUM + 10);
+    assertCertificatesExact(kineticHeap);
+
+    for (int t = 2; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      assertElementsCorrect(kineticHeap);
+      assertCertificatesMatchElements(kineticHeap);
+      assertCertificatesExact(kineticHeap);
+    }
+  }
+
+  @Test
+  public void testInsertAllRejectsBatchUnchanged() {
+    kineticHeap.insert(1, 1.0, 1.0);
+    List<KineticElement> elements = new ArrayList<>();
+    elements.add(new KineticElement(2, 2.0, 1.0));
+    elements.add(null);
+    elements.add(new KineticElement(3, 3.0, 1.0));
+
+    assertThatThrownBy(() -> kineticHeap.insertAll(elements))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> kineticHeap.insertAll(elements.subList(0, 1), new int[0]))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(kineticHeap.size()).isEqualTo(1);
+    assertThat(kineticHeap.insert(4, 4.0, 1.0)).isEqualTo(1);
+    assertCertificatesExact(kineticHeap);
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {2, 4, 8})
+  public void testArity(int arity) {
+    kineticHeap = new KineticHeap(new CertificateQueue(), 0.0, arity);
+    List<Integer> handles = new ArrayList<>();
+    for (int id = 0; id < 2000; id++) {
+      handles.add(kineticHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      for (int i = 0; i < 20; i++) {
+        kineticHeap.changeTrajectory(handles.get(ThreadLocalRandom.current().nextInt(handles.size())),
+            ThreadLocalRandom.current().nextDouble(0.0, 40.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+        kineticHeap.remove(handles.remove(ThreadLocalRandom.current().nextInt(handles.size())));
+      }
+      handles.remove(Integer.valueOf(kineticHeap.getMinHandle()));
+      kineticHeap.extractMin();
+
+      for (int i = 1; i < kineticHeap.size(); i++) {
+        assertThat(kineticHeap.getValue(kineticHeap.getParentSlot(i)).getPriority())
+            .isLessThanOrEqualTo(kineticHeap.getValue(i).getPriority());
+      }
+      assertCertificatesMatchElements(kineticHeap);
+      assertCertificatesExact(kineticHeap);
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {2, 4})
+  public void testPeekTopK(int arity) {
+    kineticHeap = new KineticHeap(new CertificateQueue(), 0.0, arity);
+    List<KineticElement> elements = new ArrayList<>();
+    for (int id = 0; id < 2000; id++) {
+      KineticElement element = new KineticElement(id,
+          ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+      elements.add(element);
+      kineticHeap.insert(element);
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      double time = kineticHeap.getTime();
+      elements.sort((e1, e2) -> e1.compareAt(e2, time));
+      List<Integer> heapOrder = IntStream.range(0, kineticHeap.size())
+          .mapToObj(i -> kineticHeap.getValue(i).getId()).toList();
+      int certificatesNum = kineticHeap.getCertificates().size();
+
+      assertThat(kineticHeap.peekTopK(50)).extracting(KineticElement::getId)
+          .containsExactlyElementsOf(elements.subList(0, 50).stream()
+              .map(KineticElement::getId).toList());
+      assertThat(kineticHeap.peekTopK(5000)).hasSize(elements.size());
+      assertThat(kineticHeap.peekTopK(0)).isEmpty();
+
+      // nothing moved
+      assertThat(IntStream.range(0, kineticHeap.size())
+          .mapToObj(i -> kineticHeap.getValue(i).getId()).toList()).isEqualTo(heapOrder);
+      assertThat(kineticHeap.getCertificates().size()).isEqualTo(certificatesNum);
+      assertCertificatesExact(kineticHeap);
+    }
+  }
+
+  @Test
+  public void testHistory() {
+    List<Integer> handles = new ArrayList<>();
+    for (int id = 0; id < 500; id++) {
+      handles.add(kineticHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+    kineticHeap.enableHistory(64);
+
+    List<Double> times = new ArrayList<>();
+    List<Integer> expectedMins = new ArrayList<>();
+    List<int[]> expectedOrders = new ArrayList<>();
+    int nextId = 500;
+    for (int step = 1; step <= 40; step++) {
+      double time = step * 0.5;
+      kineticHeap.advanceTo(time);
+      if (step % 2 == 0) {
+        kineticHeap.remove(handles.remove(ThreadLocalRandom.current().nextInt(handles.size())));
+        kineticHeap.changeTrajectory(handles.get(ThreadLocalRandom.current().nextInt(handles.size())),
+            ThreadLocalRandom.current().nextDouble(0.0, 40.0), 0.1);
+        handles.remove(Integer.valueOf(kineticHeap.getMinHandle()));
+        kineticHeap.extractMin();
+        handles.add(kineticHeap.insert(nextId++, ThreadLocalRandom.current().nextDouble(0.0, 40.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+      }
+
+      times.add(time);
+      expectedMins.add(kineticHeap.getMin().getId());
+      expectedOrders.add(IntStream.range(0, kineticHeap.size())
+          .mapToObj(kineticHeap::getValue)
+          .sorted((e1, e2) -> e1.compareAt(e2, time))
+          .mapToInt(KineticElement::getId)
+          .toArray());
+    }
+    assertThat(kineticHeap.getHistory().getCheckpointCount()).isPositive();
+
+    for (int i = 0; i < times.size(); i++) {
+      assertThat(kineticHeap.getMinAt(times.get(i))).isEqualTo(expectedMins.get(i));
+      assertThat(kineticHeap.getOrderAt(times.get(i))).containsExactly(expectedOrders.get(i));
+    }
+
+    kineticHeap.clear();
+    assertThat(kineticHeap.getMinAt(kineticHeap.getTime())).isEqualTo(-1);
+    assertThat(kineticHeap.getOrderAt(kineticHeap.getTime())).isEmpty();
+    assertThatThrownBy(() -> new KineticHeap().getMinAt(0.0))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  public void testHistoryCheckpointsWithinLog() {
+    kineticHeap.enableHistory(16);
+    for (int id = 0; id < 20_000; id++) {
+      kineticHeap.insert(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+    }
+
+    KineticHistory history = kineticHeap.getHistory();
+    assertThat(history.getCheckpointCount()).isPositive();
+    assertThat(history.getCheckpointEntryCount()).isLessThanOrEqualTo(
+        history.getOperationCount());
+    assertThat(kineticHeap.getOrderAt(kineticHeap.getTime())).hasSize(20_000);
+  }
+
+  private void assertSameEvolution(KineticHeap otherHeap) {
+    for (int id = 1; id <= BIG_STEPS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      kineticHeap.insert(new KineticElement(id, initialPriority, rate, () -> kineticHeap.getCurTime()));
+      otherHeap.insert(new KineticElement(id, initialPriority, rate, otherHeap::getCurTime));
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      kineticHeap.fastForward(t);
+      otherHeap.fastForward(t);
+
+      assertElementsCorrect(otherHeap);
+      assertCertificatesMatchElements(otherHeap);
+      assertThat(otherHeap.getCertificates().size()).isEqualTo(kineticHeap.getCertificates().size());
+      for (int i = 0; i < kineticHeap.size(); i++) {
+        assertThat(otherHeap.getValue(i).getId()).isEqualTo(kineticHeap.getValue(i).getId());
+      }
+
+      assertThat(otherHeap.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+  }
+
   private void assertElementsCorrect(KineticHeap heap) {
-    assertThat(checkElementsCorrect(heap.getHeap().getHeapArray(KineticElement.class),
-        heap.getCurTime(), 0, heap.size() - 1)).isTrue();
+    assertThat(checkElementsCorrect(heap, heap.getCurTime(), 0, heap.size() - 1)).isTrue();
   }
 
 
-  private boolean checkElementsCorrect(KineticElement[] elements, int curTime, int i, int n) {
+  private boolean checkElementsCorrect(KineticHeap heap, int curTime, int i, int n) {
     if (i >= (n - 1) / 2) {
       return true;
     }
 
-    KineticElement thisElement = elements[i];
-    KineticElement leftChild = elements[Heap.getLeftChild(i)];
-    KineticElement rightChild = elements[Heap.getRightChild(i)];
+    KineticElement thisElement = heap.getValue(i);
+    KineticElement leftChild = heap.getValue(Heap.getLeftChild(i));
+    KineticElement rightChild = heap.getValue(Heap.getRightChild(i));
 
     if (thisElement.getPriority() > leftChild.getPriority()
         || thisElement.getPriority() > rightChild.getPriority()) {
       return false;
     }
 
-    if (leftChild.getCertificate() != null) {
-      if (leftChild.getCertificate().getOwnIdx() == -1
-          || leftChild.getCertificate().getExpirationTime() < curTime) {
+    ICertificateQueue certificates = heap.getCertificates();
+    if (certificates.contains(Heap.getLeftChild(i))) {
+      if (certificates.getExpirationTime(Heap.getLeftChild(i)) < curTime) {
         return false;
       }
     }
 
-    if (rightChild.getCertificate() != null) {
-      if (rightChild.getCertificate().getOwnIdx() == -1
-          || rightChild.getCertificate().getExpirationTime() < curTime) {
+    if (certificates.contains(Heap.getRightChild(i))) {
+      if (certificates.getExpirationTime(Heap.getRightChild(i)) < curTime) {
         return false;
       }
     }
 
-    return checkElementsCorrect(elements, curTime, Heap.getLeftChild(i), n)
-        && checkElementsCorrect(elements, curTime, Heap.getRightChild(i), n);
+    return checkElementsCorrect(heap, curTime, Heap.getLeftChild(i), n)
+        && checkElementsCorrect(heap, curTime, Heap.getRightChild(i), n);
 
   }
 
 
   private void assertCertificatesMatchElements(KineticHeap heap) {
-    Certificate[] certHeapArray = heap.getCertificates().getHeapArray(Certificate.class);
+    ICertificateQueue certificates = heap.getCertificates();
+
+    assertThat(certificates.contains(Heap.getRoot())).isFalse();
 
-    for (int i = 0; i < heap.getCertificates().size(); i++) {
-      assertThat(heap.getCertificates().getValue(i).getOwnIdx()).isEqualTo(i);
+    int certificatesNum = 0;
+    for (int i = 0; i < heap.size(); i++) {
+      if (certificates.contains(i)) {
+        certificatesNum++;
+      }
     }
+    assertThat(certificatesNum).isEqualTo(certificates.size());
 
-    for (int i = 0; i < heap.getHeap().size(); i++) {
-      Certificate certificate = heap.getHeap().getValue(i).getCertificate();
-      if (certificate != null) {
-        assertThat(certHeapArray[certificate.getOwnIdx()].getElementIdx()).isEqualTo(i);
+    if (certificates instanceof CertificateQueue queue && !queue.isLazy()) {
+      for (int i = 0; i < queue.getEntryCount(); i++) {
+        int elementIdx = queue.getElementIdxAt(i);
+        assertThat(queue.getPosition(elementIdx)).isEqualTo(i);
+        assertThat(elementIdx).isGreaterThan(Heap.getRoot()).isLessThan(heap.size());
       }
     }
 
   }
 
+  private void assertCertificatesExact(KineticHeap heap) {
+    ICertificateQueue certificates = heap.getCertificates();
+
+    for (int i = 1; i < heap.size(); i++) {
+      double intersection = heap.getValue(i).getIntersectionTime(
+          heap.getValue(heap.getParentSlot(i)));
+      assertThat(certificates.contains(i)).isEqualTo(intersection > heap.getTime());
+      if (certificates.contains(i)) {
+        assertThat(certificates.getExpirationTime(i)).isEqualTo(intersection);
+      }
+    }
+  }
+
   private void assertCertificatesFutureTimeInQueue(int t) {
-    List<KineticElement> elements = kineticHeap.getHeap().getHeapList();
-    List<Certificate> certificates = kineticHeap.getCertificates().getHeapList();
-
-    assertThat(certificates.stream().filter(e -> e.getExpirationTime() >= t).count()).isEqualTo(
-        elements.stream().filter(e -> e.getCertificate() != null).count());
-
-    for (int i = 0; i < kineticHeap.getHeap().size(); i++) {
-      int idx = i;
-      KineticElement element = kineticHeap.getValue(i);
-      if (element.getCertificate() != null && element.getCertificate().getExpirationTime() >= t) {
-        assertThat(
-            kineticHeap.getCertificates().getValue(element.getCertificate().getOwnIdx()).getElementIdx()).isEqualTo(idx);
-        assertThat(kineticHeap.getCertificates().getHeapList().stream()
-            .filter(c -> c.getElementIdx() == idx).count()).isGreaterThan(0);
+    ICertificateQueue certificates = kineticHeap.getCertificates();
+
+    for (int i = 0; i < kineticHeap.size(); i++) {
+      if (certificates.contains(i)) {
+        KineticElement element = kineticHeap.getValue(i);
+        KineticElement parent = kineticHeap.getValue(Heap.getParent(i));
+        assertThat(certificates.getExpirationTime(i)).isGreaterThanOrEqualTo(t);
+        assertThat(certificates.getExpirationTime(i)).isEqualTo(
+            element.getIntersectionTime(parent));
       }
     }
   }
@@ -71,6 +71,37 @@ class KineticHeapTrivialTest {
     }
   }
 
+  @Test
+  public void testElementsWithoutTimeSupplier() {
+    kineticHeap.insert(new KineticElement(1, 0.0, 2.0));
+    kineticHeap.insert(new KineticElement(2, 1.0, 1.0));
+    kineticHeap.insert(new KineticElement(3, 3.5, 0.0));
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(1);
+
+    kineticHeap.fastForward(2);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(2);
+    assertThat(kineticHeap.getMin().priorityAt(kineticHeap.getCurTime())).isEqualTo(3.0);
+
+    kineticHeap.fastForward(5);
+    assertThat(kineticHeap.extractMin().getId()).isEqualTo(3);
+    assertThat(kineticHeap.extractMin().getId()).isEqualTo(2);
+    assertThat(kineticHeap.extractMin().getId()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAdvanceToNextEvent() {
+    kineticHeap.insert(new KineticElement(1, 0.0, 2.0));
+    kineticHeap.insert(new KineticElement(2, 0.5, 1.0));
+
+    assertThat(kineticHeap.advanceToNextEvent()).isEqualTo(0.5);
+    assertThat(kineticHeap.getTime()).isEqualTo(0.5);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(2);
+
+    assertThat(kineticHeap.advanceToNextEvent()).isEqualTo(Double.POSITIVE_INFINITY);
+    assertThat(kineticHeap.getTime()).isEqualTo(0.5);
+    assertThat(kineticHeap.getMin().getId()).isEqualTo(2);
+  }
+
   @Test
   public void testValidCertificatesAfterAddingMoveTime()
       throws IOException, CsvValidationException {
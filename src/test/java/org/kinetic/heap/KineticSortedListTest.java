@@ -0,0 +1,155 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KineticSortedListTest {
+
+  private static final int ELEMENTS_NUM = 1_000;
+
+  private KineticSortedList sortedList;
+
+  private List<KineticElement> elements;
+
+  @BeforeEach
+  public void setUp() {
+    sortedList = new KineticSortedList();
+    elements = new ArrayList<>();
+  }
+
+  @Test
+  public void keepsOrderWhileTimeMoves() {
+    insertRandom(ELEMENTS_NUM);
+
+    for (int t = 1; t <= 30; t++) {
+      sortedList.fastForward(t);
+      assertOrder();
+
+      // churn at the current time
+      for (int i = 0; i < 20; i++) {
+        KineticElement element = elements.remove(
+            ThreadLocalRandom.current().nextInt(elements.size()));
+        assertThat(sortedList.remove(element.getId())).isTrue();
+        assertThat(sortedList.contains(element.getId())).isFalse();
+        insert(new KineticElement(element.getId(),
+            ThreadLocalRandom.current().nextDouble(0.0, 60.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+      }
+      assertOrder();
+    }
+
+    elements.sort(byPriorityAt(sortedList.getTime()));
+    for (KineticElement element : elements) {
+      assertThat(sortedList.extractMin().getId()).isEqualTo(element.getId());
+    }
+    assertThat(sortedList.getMin()).isNull();
+    assertThat(sortedList.getCertificates().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void queries() {
+    insertRandom(ELEMENTS_NUM);
+    sortedList.advanceTo(7.5);
+
+    double time = sortedList.getTime();
+    elements.sort(byPriorityAt(time));
+
+    assertThat(sortedList.topK(50)).extracting(KineticElement::getId)
+        .containsExactlyElementsOf(elements.subList(0, 50).stream()
+            .map(KineticElement::getId).toList());
+    assertThat(sortedList.topK(ELEMENTS_NUM + 1)).hasSize(ELEMENTS_NUM);
+    assertThat(sortedList.topK(0)).isEmpty();
+
+    for (int rank = 0; rank < elements.size(); rank++) {
+      assertThat(sortedList.rank(elements.get(rank).getId())).isEqualTo(rank);
+      assertThat(sortedList.get(rank).getId()).isEqualTo(elements.get(rank).getId());
+    }
+    assertThat(sortedList.rank(-1)).isEqualTo(-1);
+
+    double lo = 10.0;
+    double hi = 15.0;
+    assertThat(sortedList.rangeByPriority(lo, hi)).extracting(KineticElement::getId)
+        .containsExactlyElementsOf(elements.stream()
+            .filter(e -> e.priorityAt(time) >= lo && e.priorityAt(time) <= hi)
+            .map(KineticElement::getId).toList());
+  }
+
+  @Test
+  public void coincidentCrossing() {
+    // all three meet at priority 2.0 at time 1.0 and come out reversed
+    sortedList.insert(new KineticElement(1, 0.0, 2.0));
+    sortedList.insert(new KineticElement(2, 1.0, 1.0));
+    sortedList.insert(new KineticElement(3, 2.0, 0.0));
+
+    assertThat(sortedList.advanceToNextEvent()).isEqualTo(1.0);
+    assertThat(sortedList.topK(3)).extracting(KineticElement::getId).containsExactly(3, 2, 1);
+    assertThat(sortedList.advanceToNextEvent()).isEqualTo(Double.POSITIVE_INFINITY);
+  }
+
+  @Test
+  public void duplicateId() {
+    sortedList.insert(new KineticElement(1, 0.0, 1.0));
+    assertThatThrownBy(() -> sortedList.insert(new KineticElement(1, 2.0, 1.0)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void idLookupsSurviveChurn() {
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      // negative ids and ids sharing low bits probe into each other
+      int id = (i % 2 == 0 ? -i : i) << 12;
+      ids.add(id);
+      insert(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0), 1.0));
+    }
+    for (int i = 0; i < 20_000; i++) {
+      int id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+      if (sortedList.contains(id)) {
+        assertThat(sortedList.remove(id)).isTrue();
+        elements.removeIf(element -> element.getId() == id);
+        assertThat(sortedList.rank(id)).isEqualTo(-1);
+      } else {
+        insert(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0), 1.0));
+        assertThat(sortedList.get(sortedList.rank(id)).getId()).isEqualTo(id);
+      }
+    }
+
+    assertOrder();
+    for (KineticElement element : elements) {
+      assertThat(sortedList.contains(element.getId())).isTrue();
+    }
+    assertThat(sortedList.contains(1)).isFalse();
+  }
+
+  private void insertRandom(int count) {
+    for (int id = 0; id < count; id++) {
+      insert(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+  }
+
+  private void insert(KineticElement element) {
+    elements.add(element);
+    sortedList.insert(element);
+  }
+
+  private void assertOrder() {
+    double time = sortedList.getTime();
+    assertThat(sortedList.size()).isEqualTo(elements.size());
+    for (int rank = 1; rank < sortedList.size(); rank++) {
+      assertThat(sortedList.get(rank - 1).priorityAt(time))
+          .isLessThanOrEqualTo(sortedList.get(rank).priorityAt(time) + 1e-9);
+    }
+  }
+
+  private static Comparator<KineticElement> byPriorityAt(double time) {
+    return Comparator.comparingDouble(e -> e.priorityAt(time));
+  }
+}
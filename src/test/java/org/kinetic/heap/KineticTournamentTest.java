@@ -0,0 +1,125 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KineticTournamentTest {
+
+  private static final int ELEMENTS_NUM = 2_000;
+
+  private KineticTournament tournament;
+
+  private KineticHeap kineticHeap;
+
+  @BeforeEach
+  public void setUp() {
+    tournament = new KineticTournament();
+    kineticHeap = new KineticHeap();
+  }
+
+  @Test
+  public void matchesKineticHeap() {
+    for (int id = 1; id <= ELEMENTS_NUM; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      tournament.insert(new KineticElement(id, initialPriority, rate));
+      kineticHeap.insert(new KineticElement(id, initialPriority, rate));
+    }
+    assertTournamentValid();
+
+    for (int t = 1; t <= 20; t++) {
+      tournament.fastForward(t);
+      kineticHeap.fastForward(t);
+      assertTournamentValid();
+
+      assertThat(tournament.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+
+    while (kineticHeap.size() > 0) {
+      assertThat(tournament.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+    assertThat(tournament.size()).isZero();
+    assertThat(tournament.getMin()).isNull();
+    assertThat(tournament.getCertificates().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void removeByHandle() {
+    List<Integer> handles = new ArrayList<>();
+    for (int id = 0; id < ELEMENTS_NUM; id++) {
+      handles.add(tournament.insertWithHandle(new KineticElement(id,
+          ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0))));
+    }
+
+    for (int t = 1; t <= 20; t++) {
+      tournament.fastForward(t);
+      for (int i = 0; i < 50; i++) {
+        int handle = handles.remove(ThreadLocalRandom.current().nextInt(handles.size()));
+        int id = tournament.getValue(handle).getId();
+        assertThat(tournament.remove(handle)).isTrue();
+        assertThat(tournament.contains(handle)).isFalse();
+
+        // the freed leaf is reused and keeps its handle stable
+        int newHandle = tournament.insertWithHandle(new KineticElement(id,
+            ThreadLocalRandom.current().nextDouble(0.0, 40.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+        assertThat(newHandle).isEqualTo(handle);
+        handles.add(newHandle);
+      }
+      assertTournamentValid();
+    }
+  }
+
+  @Test
+  public void advanceToNextEvent() {
+    tournament.insert(new KineticElement(1, 0.0, 2.0));
+    tournament.insert(new KineticElement(2, 0.5, 1.0));
+    tournament.insert(new KineticElement(3, 3.0, 0.0));
+
+    assertThat(tournament.advanceToNextEvent()).isEqualTo(0.5);
+    assertThat(tournament.getMin().getId()).isEqualTo(2);
+    // 1 and 3 cross at 1.5 but only the match winners are certified
+    assertThat(tournament.advanceToNextEvent()).isEqualTo(2.5);
+    assertThat(tournament.getMin().getId()).isEqualTo(3);
+    assertThat(tournament.advanceToNextEvent()).isEqualTo(Double.POSITIVE_INFINITY);
+    assertThat(tournament.getTime()).isEqualTo(2.5);
+  }
+
+  private void assertTournamentValid() {
+    int capacity = tournament.getCapacity();
+    double time = tournament.getTime();
+    ICertificateQueue certificates = tournament.getCertificates();
+
+    int liveCertificates = 0;
+    for (int node = capacity - 1; node >= 1; node--) {
+      int left = tournament.getWinner(node << 1);
+      int right = tournament.getWinner((node << 1) + 1);
+      int winner = tournament.getWinner(node);
+      if (left == -1 || right == -1) {
+        assertThat(winner).isEqualTo(left == -1 ? right : left);
+        assertThat(certificates.contains(node)).isFalse();
+        continue;
+      }
+
+      int loser = winner == left ? right : left;
+      KineticElement winnerElement = tournament.getValue(winner);
+      KineticElement loserElement = tournament.getValue(loser);
+      assertThat(winnerElement.priorityAt(time))
+          .isLessThanOrEqualTo(loserElement.priorityAt(time) + 1e-9);
+
+      double intersection = winnerElement.getIntersectionTime(loserElement);
+      assertThat(certificates.contains(node)).isEqualTo(intersection > time);
+      if (certificates.contains(node)) {
+        assertThat(certificates.getExpirationTime(node)).isEqualTo(intersection);
+        liveCertificates++;
+      }
+    }
+    assertThat(certificates.size()).isEqualTo(liveCertificates);
+  }
+}
@@ -0,0 +1,145 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LoggedKineticHeapTest {
+
+  private static final int OPERATIONS_NUM = 5_000;
+
+  @TempDir
+  private Path dir;
+
+  @Test
+  public void recoverReplaysLog() throws IOException {
+    KineticHeapPrimitive expected = new KineticHeapPrimitive();
+    try (LoggedKineticHeap logged = open(16)) {
+      runOperations(new Random(1), logged, expected, 0);
+    }
+
+    try (LoggedKineticHeap recovered = open(16)) {
+      assertSame((KineticHeapPrimitive) recovered.getHeap(), expected);
+    }
+  }
+
+  @Test
+  public void checkpointStartsNewGeneration() throws IOException {
+    KineticHeapPrimitive expected = new KineticHeapPrimitive();
+    Random random = new Random(2);
+    try (LoggedKineticHeap logged = open(0)) {
+      runOperations(random, logged, expected, 0);
+      logged.checkpoint(((KineticHeapPrimitive) logged.getHeap())::save);
+      runOperations(random, logged, expected, OPERATIONS_NUM);
+    }
+
+    try (Stream<Path> files = Files.list(dir)) {
+      assertThat(files.map(file -> file.getFileName().toString()).collect(Collectors.toList()))
+          .containsExactlyInAnyOrder("snapshot-1", "wal-1");
+    }
+    try (LoggedKineticHeap recovered = open(0)) {
+      assertSame((KineticHeapPrimitive) recovered.getHeap(), expected);
+    }
+  }
+
+  @Test
+  public void tornFrameIsDropped() throws IOException {
+    KineticHeapPrimitive expected = new KineticHeapPrimitive();
+    try (LoggedKineticHeap logged = open(1)) {
+      runOperations(new Random(3), logged, expected, 0);
+    }
+    Files.write(dir.resolve("wal-0"), new byte[]{100, 0, 0, 0, 1, 2, 3},
+        StandardOpenOption.APPEND);
+
+    try (LoggedKineticHeap recovered = open(1)) {
+      assertSame((KineticHeapPrimitive) recovered.getHeap(), expected);
+      recovered.insert(new KineticElement(-1, 0.0, 1.0));
+      expected.insert(-1, 0.0, 1.0);
+    }
+    try (LoggedKineticHeap recovered = open(1)) {
+      assertSame((KineticHeapPrimitive) recovered.getHeap(), expected);
+    }
+  }
+
+  @Test
+  public void recoveredKineticHeapFollowsItsClock() throws IOException {
+    KineticHeap expected = new KineticHeap();
+    WriteAheadLog log = WriteAheadLog.open(dir, 8);
+    KineticHeap heap = log.recover(path -> new KineticHeap(), KineticHeap::new);
+    try (LoggedKineticHeap logged = new LoggedKineticHeap(heap, log)) {
+      Random random = new Random(4);
+      for (int id = 0; id < 1_000; id++) {
+        double initialPriority = random.nextDouble() * 10.0;
+        double rate = 0.5 + random.nextDouble() * 1.5;
+        logged.insert(new KineticElement(id, initialPriority, rate, heap::getTime));
+        expected.insert(id, initialPriority, rate);
+      }
+      logged.advanceTo(2.5);
+      expected.advanceTo(2.5);
+    }
+
+    WriteAheadLog recoveredLog = WriteAheadLog.open(dir, 8);
+    KineticHeap recovered = recoveredLog.recover(path -> new KineticHeap(), KineticHeap::new);
+    try (LoggedKineticHeap logged = new LoggedKineticHeap(recovered, recoveredLog)) {
+      assertThat(recovered.getMin().getPriority())
+          .isEqualTo(expected.getMin().priorityAt(2.5));
+      while (expected.size() > 0) {
+        assertThat(logged.extractMin().getId()).isEqualTo(expected.extractMin().getId());
+      }
+    }
+  }
+
+  private LoggedKineticHeap open(int syncBatch) throws IOException {
+    WriteAheadLog log = WriteAheadLog.open(dir, syncBatch);
+    KineticHeapPrimitive heap = log.recover(KineticHeapPrimitive::load, KineticHeapPrimitive::new);
+    return new LoggedKineticHeap(heap, log);
+  }
+
+  private void runOperations(Random random, LoggedKineticHeap logged,
+      KineticHeapPrimitive expected, int firstId) {
+    KineticHeapPrimitive heap = (KineticHeapPrimitive) logged.getHeap();
+    for (int op = 0; op < OPERATIONS_NUM; op++) {
+      int kind = random.nextInt(10);
+      if (kind < 5 || heap.size() == 0) {
+        double initialPriority = random.nextDouble() * 10.0;
+        double rate = 0.5 + random.nextDouble() * 1.5;
+        logged.insert(new KineticElement(firstId + op, initialPriority, rate));
+        expected.insert(firstId + op, initialPriority, rate);
+      } else if (kind == 5) {
+        assertThat(logged.extractMin().getId()).isEqualTo(expected.extractMinId());
+      } else if (kind == 6) {
+        double time = heap.getTime() + random.nextDouble();
+        logged.advanceTo(time);
+        expected.advanceTo(time);
+      } else if (kind == 7) {
+        assertThat(logged.advanceToNextEvent()).isEqualTo(expected.advanceToNextEvent());
+      } else if (kind == 8) {
+        int handle = heap.getHandle(random.nextInt(heap.size()));
+        double initialPriority = random.nextDouble() * 10.0;
+        logged.changeTrajectory(handle, initialPriority, 1.0);
+        expected.changeTrajectory(handle, initialPriority, 1.0);
+      } else {
+        int handle = heap.getHandle(random.nextInt(heap.size()));
+        assertThat(logged.remove(handle)).isTrue();
+        assertThat(expected.remove(handle)).isTrue();
+      }
+    }
+  }
+
+  private void assertSame(KineticHeapPrimitive heap, KineticHeapPrimitive expected) {
+    assertThat(heap.size()).isEqualTo(expected.size());
+    assertThat(heap.getTime()).isEqualTo(expected.getTime());
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(heap.getId(i)).isEqualTo(expected.getId(i));
+      assertThat(heap.getHandle(i)).isEqualTo(expected.getHandle(i));
+    }
+  }
+}
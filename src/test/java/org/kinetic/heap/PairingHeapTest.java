@@ -0,0 +1,80 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kinetic.heap.PairingHeap.Node;
+
+class PairingHeapTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private PairingHeap<Double> heap;
+
+  @BeforeEach
+  public void setUp() {
+    heap = new PairingHeap<>();
+  }
+
+  @Test
+  public void checkExtractOrder() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      double value = ThreadLocalRandom.current().nextDouble(0.0, 1000.0);
+      heap.insert(value);
+      priorityQueue.add(value);
+    }
+
+    while (!priorityQueue.isEmpty()) {
+      assertThat(heap.getMin()).isEqualTo(priorityQueue.peek());
+      assertThat(heap.extractMin()).isEqualTo(priorityQueue.poll());
+    }
+    assertThat(heap.size()).isZero();
+    assertThat(heap.extractMin()).isNull();
+  }
+
+  @Test
+  public void checkDecreaseAndRemove() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    List<Node<Double>> nodes = new ArrayList<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      nodes.add(heap.insertWithHandle(ThreadLocalRandom.current().nextDouble(0.0, 1000.0)));
+    }
+    // interleave extractions so that decreases and removes also hit deeper subtrees
+    for (int i = 0; i < 100; i++) {
+      Node<Double> node = nodes.get(0);
+      for (Node<Double> candidate : nodes) {
+        if (candidate.getValue() < node.getValue()) {
+          node = candidate;
+        }
+      }
+      assertThat(heap.extractMin()).isEqualTo(node.getValue());
+      assertThat(heap.contains(node)).isFalse();
+      nodes.remove(node);
+    }
+
+    for (int i = 0; i < nodes.size(); i++) {
+      Node<Double> node = nodes.get(i);
+      if (i % 3 == 0) {
+        assertThat(heap.remove(node)).isTrue();
+        assertThat(heap.remove(node)).isFalse();
+      } else {
+        heap.decrease(node, node.getValue() - ThreadLocalRandom.current().nextDouble(0.0, 500.0));
+        priorityQueue.add(node.getValue());
+      }
+    }
+    assertThatThrownBy(() -> heap.decrease(nodes.get(1), nodes.get(1).getValue() + 1.0))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(heap.size()).isEqualTo(priorityQueue.size());
+    while (!priorityQueue.isEmpty()) {
+      assertThat(heap.extractMin()).isEqualTo(priorityQueue.poll());
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kinetic.heap.RadixHeap.Node;
+
+class RadixHeapTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  private RadixHeap<Double> heap;
+
+  @BeforeEach
+  public void setUp() {
+    heap = new RadixHeap<>(RadixHeap::orderedBits);
+  }
+
+  @Test
+  public void checkMonotoneTrace() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      double value = ThreadLocalRandom.current().nextDouble(-1000.0, 1000.0);
+      heap.insert(value);
+      priorityQueue.add(value);
+    }
+
+    // extract the minimum and schedule a later one, like an event simulation
+    for (int i = 0; i < 10 * ELEMENTS_NUM; i++) {
+      double min = priorityQueue.poll();
+      assertThat(heap.getMin()).isEqualTo(min);
+      assertThat(heap.extractMin()).isEqualTo(min);
+
+      double next = min + ThreadLocalRandom.current().nextDouble(0.0, 100.0);
+      heap.insert(next);
+      priorityQueue.add(next);
+    }
+
+    while (!priorityQueue.isEmpty()) {
+      assertThat(heap.extractMin()).isEqualTo(priorityQueue.poll());
+    }
+    assertThat(heap.extractMin()).isNull();
+    assertThatThrownBy(() -> heap.insert(-2000.0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void checkDecreaseAndRemove() {
+    PriorityQueue<Double> priorityQueue = new PriorityQueue<>();
+    List<Node<Double>> nodes = new ArrayList<>();
+    for (int i = 0; i < ELEMENTS_NUM; i++) {
+      nodes.add(heap.insertWithHandle(ThreadLocalRandom.current().nextDouble(500.0, 1000.0)));
+    }
+    heap.insert(0.0);
+    assertThat(heap.extractMin()).isEqualTo(0.0);
+
+    for (int i = 0; i < nodes.size(); i++) {
+      Node<Double> node = nodes.get(i);
+      if (i % 3 == 0) {
+        assertThat(heap.remove(node)).isTrue();
+        assertThat(heap.contains(node)).isFalse();
+      } else {
+        heap.decrease(node, node.getValue() - ThreadLocalRandom.current().nextDouble(0.0, 500.0));
+        priorityQueue.add(node.getValue());
+      }
+    }
+    assertThatThrownBy(() -> heap.decrease(nodes.get(1), -1.0))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(heap.size()).isEqualTo(priorityQueue.size());
+    while (!priorityQueue.isEmpty()) {
+      assertThat(heap.extractMin()).isEqualTo(priorityQueue.poll());
+    }
+  }
+  @Test
+  public void checkPeekRaisesLastMin() {
+    heap.insert(1.0);
+    heap.insert(5.0);
+    assertThat(heap.extractMin()).isEqualTo(1.0);
+    heap.insert(2.0);
+
+    assertThat(heap.getMin()).isEqualTo(2.0);
+    assertThat(heap.getLastMin()).isEqualTo(RadixHeap.orderedBits(2.0));
+    assertThatThrownBy(() -> heap.insert(1.5))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("peeked");
+    heap.insert(2.0);
+    assertThat(heap.size()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,121 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ScenarioCsvLoaderTest {
+
+  @TempDir
+  private Path dir;
+
+  @Test
+  public void eiselLemireMatchesParseDouble() {
+    Random random = new Random(1);
+    for (int i = 0; i < 1_000_000; i++) {
+      long mantissa = random.nextInt(4) == 0 ? random.nextLong() >>> random.nextInt(64)
+          : random.nextLong() >>> 1;
+      if (mantissa == 0) {
+        continue;
+      }
+      int exp10 = random.nextInt(700) - 350;
+      long bits = ScenarioCsvLoader.eiselLemire(mantissa, exp10);
+      if (bits != -1) {
+        assertThat(Double.longBitsToDouble(bits))
+            .isEqualTo(Double.parseDouble(Long.toUnsignedString(mantissa) + "e" + exp10));
+      }
+    }
+  }
+
+  @Test
+  public void parsesLikeParseDouble() throws IOException {
+    Random random = new Random(2);
+    List<String> lines = new ArrayList<>();
+    lines.add("id, rate, initialPriority");
+    List<String> rates = new ArrayList<>();
+    List<String> priorities = new ArrayList<>();
+    for (int i = 0; i < 100_000; i++) {
+      double value = Double.longBitsToDouble(random.nextLong());
+      if (Double.isNaN(value) || Double.isInfinite(value)) {
+        value = random.nextGaussian();
+      }
+      String rate = switch (i % 5) {
+        case 0 -> Double.toString(value);
+        case 1 -> Double.toString(random.nextDouble() * 10.0);
+        case 2 -> String.format("%.3f", random.nextDouble() * 1000.0);
+        case 3 -> String.format("%.25e", value);
+        default -> Integer.toString(random.nextInt());
+      };
+      String priority = Double.toString(random.nextGaussian() * 1e-5);
+      rates.add(rate);
+      priorities.add(priority);
+      lines.add(i + "," + rate + "," + priority);
+    }
+    Path file = dir.resolve("values.csv");
+    Files.write(file, lines);
+
+    List<Double> parsedRates = new ArrayList<>();
+    List<Double> parsedPriorities = new ArrayList<>();
+    ScenarioCsvLoader.Result result = new ScenarioCsvLoader(1000, 4096).load(file,
+        (ids, initialPriorities, rateValues, length) -> {
+          for (int i = 0; i < length; i++) {
+            assertThat(ids[i]).isEqualTo(parsedRates.size());
+            parsedRates.add(rateValues[i]);
+            parsedPriorities.add(initialPriorities[i]);
+          }
+        });
+
+    assertThat(result.getRows()).isEqualTo(rates.size());
+    for (int i = 0; i < rates.size(); i++) {
+      assertThat(parsedRates.get(i)).isEqualTo(Double.parseDouble(rates.get(i)));
+      assertThat(parsedPriorities.get(i)).isEqualTo(Double.parseDouble(priorities.get(i)));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"scenario1.csv", "scenario2.csv", "scenario3.csv", "scenario4.csv"})
+  public void loadsScenario(String fileName) throws IOException, URISyntaxException {
+    Path file = Path.of(getClass().getClassLoader().getResource(fileName).toURI());
+
+    KineticHeapPrimitive expected = new KineticHeapPrimitive();
+    for (String line : Files.readAllLines(file).subList(1, Files.readAllLines(file).size())) {
+      if (line.isBlank()) {
+        continue;
+      }
+      String[] values = line.split(",");
+      expected.insert(Integer.parseInt(values[0]), Double.parseDouble(values[2]),
+          Double.parseDouble(values[1]));
+    }
+
+    KineticHeapPrimitive heap = new KineticHeapPrimitive();
+    ScenarioCsvLoader.Result result = new ScenarioCsvLoader(3).load(file, heap);
+
+    assertThat(result.getRows()).isEqualTo(expected.size());
+    while (expected.size() > 0) {
+      assertThat(heap.getInitialPriority(0)).isEqualTo(expected.getInitialPriority(0));
+      assertThat(heap.getRate(0)).isEqualTo(expected.getRate(0));
+      assertThat(heap.extractMinId()).isEqualTo(expected.extractMinId());
+    }
+  }
+
+  @Test
+  public void rejectsMalformedRow() throws IOException {
+    Path file = dir.resolve("bad.csv");
+    Files.write(file, List.of("id, rate, initialPriority", "1,1.0,2.0", "2,abc,3.0"));
+
+    assertThatThrownBy(() -> new ScenarioCsvLoader().load(file, new KineticHeapPrimitive()))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("line 3");
+  }
+}
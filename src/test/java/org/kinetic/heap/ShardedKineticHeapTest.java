@@ -0,0 +1,121 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class ShardedKineticHeapTest {
+
+  private static final int ELEMENTS_NUM = 10_000;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 8})
+  public void matchesKineticHeap(int shardCount) {
+    ShardedKineticHeap shardedHeap = new ShardedKineticHeap(shardCount, KineticHeap::new,
+        new ForkJoinPool(4));
+    KineticHeap kineticHeap = new KineticHeap();
+
+    List<KineticElement> elements = new ArrayList<>();
+    for (int id = 0; id < ELEMENTS_NUM; id++) {
+      elements.add(new KineticElement(id, ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0)));
+    }
+    shardedHeap.insertAll(elements);
+    kineticHeap.insertAll(elements);
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      KineticHeap shardHeap = shardedHeap.getShard(shard);
+      for (int i = 0; i < shardHeap.size(); i++) {
+        assertThat(shardedHeap.getShardIdx(shardHeap.getValue(i).getId())).isEqualTo(shard);
+      }
+    }
+
+    int nextId = ELEMENTS_NUM;
+    for (int t = 1; t <= 20; t++) {
+      shardedHeap.fastForward(t);
+      kineticHeap.fastForward(t);
+      assertThat(shardedHeap.size()).isEqualTo(kineticHeap.size());
+
+      for (int i = 0; i < 50; i++) {
+        assertThat(shardedHeap.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+
+        KineticElement element = new KineticElement(nextId++,
+            ThreadLocalRandom.current().nextDouble(0.0, 60.0),
+            ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+        shardedHeap.insert(element);
+        kineticHeap.insert(element);
+      }
+    }
+
+    while (kineticHeap.size() > 0) {
+      assertThat(shardedHeap.extractMin().getId()).isEqualTo(kineticHeap.extractMin().getId());
+    }
+    assertThat(shardedHeap.getMin()).isNull();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 4})
+  public void advanceToNextEvent(int shardCount) {
+    ShardedKineticHeap shardedHeap = new ShardedKineticHeap(shardCount);
+    KineticHeap kineticHeap = new KineticHeap();
+    for (int id = 0; id < 200; id++) {
+      KineticElement element = new KineticElement(id,
+          ThreadLocalRandom.current().nextDouble(0.0, 10.0),
+          ThreadLocalRandom.current().nextDouble(0.5, 2.0));
+      shardedHeap.insert(element);
+      kineticHeap.insert(element);
+    }
+
+    double eventTime;
+    while ((eventTime = shardedHeap.advanceToNextEvent()) != Double.POSITIVE_INFINITY) {
+      assertThat(shardedHeap.getTime()).isEqualTo(eventTime);
+      kineticHeap.advanceTo(eventTime);
+      assertThat(shardedHeap.getMin().priorityAt(eventTime))
+          .isEqualTo(kineticHeap.getMin().priorityAt(eventTime));
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 3, 8})
+  public void minChangesMatchKineticHeap(int shardCount) {
+    ShardedKineticHeap shardedHeap = new ShardedKineticHeap(shardCount);
+    KineticHeap kineticHeap = new KineticHeap();
+    for (int id = 0; id < 500; id++) {
+      double initialPriority = ThreadLocalRandom.current().nextDouble(0.0, 10.0);
+      double rate = ThreadLocalRandom.current().nextDouble(0.5, 2.0);
+      shardedHeap.insert(new KineticElement(id, initialPriority, rate));
+      kineticHeap.insert(id, initialPriority, rate);
+    }
+
+    List<Double> shardedTimes = new ArrayList<>();
+    List<Integer> shardedIds = new ArrayList<>();
+    int minId = shardedHeap.getMin().getId();
+    double eventTime;
+    while ((eventTime = shardedHeap.advanceToNextEvent()) != Double.POSITIVE_INFINITY) {
+      if (shardedHeap.getMin().getId() != minId) {
+        minId = shardedHeap.getMin().getId();
+        shardedTimes.add(eventTime);
+        shardedIds.add(minId);
+      }
+    }
+
+    List<Double> times = new ArrayList<>();
+    List<Integer> ids = new ArrayList<>();
+    minId = kineticHeap.getMin().getId();
+    while ((eventTime = kineticHeap.advanceToNextEvent()) != Double.POSITIVE_INFINITY) {
+      if (kineticHeap.getMin().getId() != minId) {
+        minId = kineticHeap.getMin().getId();
+        times.add(eventTime);
+        ids.add(minId);
+      }
+    }
+
+    assertThat(shardedIds).isNotEmpty().isEqualTo(ids);
+    assertThat(shardedTimes).isEqualTo(times);
+  }
+}
@@ -0,0 +1,55 @@
+package org.kinetic.heap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class TimerWheelCertificateQueueTest {
+
+  private static final int SLOTS_NUM = 5_000;
+  private static final int OPERATIONS_NUM = 200_000;
+
+  @ParameterizedTest
+  @CsvSource({
+      "1.0, 256, 1000.0",
+      "0.5, 4, 1000.0",
+      "10.0, 16, 1.0E9"
+  })
+  public void matchesBinaryHeap(double bucketWidth, int wheelSize, double horizon) {
+    TimerWheelCertificateQueue wheel = new TimerWheelCertificateQueue(bucketWidth, wheelSize);
+    CertificateQueue reference = new CertificateQueue();
+
+    double now = 0.0;
+    for (int i = 0; i < OPERATIONS_NUM; i++) {
+      int slot = ThreadLocalRandom.current().nextInt(SLOTS_NUM);
+      int operation = ThreadLocalRandom.current().nextInt(4);
+
+      if (operation == 0 && !reference.isEmpty()) {
+        now = reference.getMinExpirationTime();
+        assertThat(wheel.getMinExpirationTime()).isEqualTo(now);
+        assertThat(wheel.extractMin()).isEqualTo(reference.extractMin());
+      } else if (operation == 1) {
+        assertThat(wheel.remove(slot)).isEqualTo(reference.remove(slot));
+      } else if (!reference.contains(slot)) {
+        double time = now + ThreadLocalRandom.current().nextDouble(0.0, horizon);
+        wheel.add(slot, time);
+        reference.add(slot, time);
+      }
+
+      assertThat(wheel.size()).isEqualTo(reference.size());
+      assertThat(wheel.contains(slot)).isEqualTo(reference.contains(slot));
+      if (reference.contains(slot)) {
+        assertThat(wheel.getExpirationTime(slot)).isEqualTo(reference.getExpirationTime(slot));
+      }
+    }
+
+    while (!reference.isEmpty()) {
+      assertThat(wheel.getMinExpirationTime()).isEqualTo(reference.getMinExpirationTime());
+      assertThat(wheel.extractMin()).isEqualTo(reference.extractMin());
+    }
+    assertThat(wheel.isEmpty()).isTrue();
+    assertThat(wheel.getMinElementIdx()).isEqualTo(-1);
+  }
+}